@@ -0,0 +1,112 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Entity hierarchies used as input for benchmarks.
+ *
+ * @author richter
+ */
+@SuppressWarnings({"PMD.UnusedPrivateField", "unused"})
+public final class BenchmarkEntities {
+
+    public static class Level0 {
+        private String property0;
+        private String property1;
+        private int property2;
+        private long property3;
+    }
+
+    public static class Level1 extends Level0 {
+        private String property4;
+        private Integer property5;
+    }
+
+    public static class Level2 extends Level1 {
+        private String property6;
+        private Double property7;
+    }
+
+    public static class Level3 extends Level2 {
+        private String property8;
+        private Boolean property9;
+    }
+
+    public static class Level4 extends Level3 {
+        private String property10;
+        private Long property11;
+    }
+
+    /**
+     * The classes of the hierarchy {@link Level0} to {@link Level4} indexed by
+     * their depth.
+     */
+    public static final Class<?>[] HIERARCHY = {Level0.class,
+        Level1.class,
+        Level2.class,
+        Level3.class,
+        Level4.class};
+
+    /**
+     * The root of violations with configurable count and path depth.
+     */
+    public static class Root {
+        @Valid
+        private final List<Chain> chains = new ArrayList<>();
+
+        /**
+         * Creates a root with {@code violationCount} chains of
+         * {@code pathDepth} nested elements each of which causes a violation
+         * in its last element. The paths of violations consist of
+         * {@code pathDepth + 1} property nodes.
+         *
+         * @param violationCount the number of violations
+         * @param pathDepth the depth of each violation's path
+         * @return the created root
+         */
+        public static Root create(int violationCount,
+                int pathDepth) {
+            Root retValue = new Root();
+            for(int i=0; i<violationCount; i++) {
+                Chain chain = new Chain(null);
+                for(int j=1; j<pathDepth; j++) {
+                    chain = new Chain(chain);
+                }
+                retValue.chains.add(chain);
+            }
+            return retValue;
+        }
+    }
+
+    public static class Chain {
+        @NotNull
+        private final String value;
+        @Valid
+        private final Chain next;
+
+        public Chain(Chain next) {
+            this.next = next;
+            this.value = next == null ? null : "value";
+        }
+    }
+
+    private BenchmarkEntities() {
+    }
+}
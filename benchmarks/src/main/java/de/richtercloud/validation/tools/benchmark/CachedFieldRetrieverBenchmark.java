@@ -0,0 +1,117 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldRetriever;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of cache hits and misses of
+ * {@link CachedFieldRetriever#retrieveRelevantFields(java.lang.Class) } across
+ * hierarchy depths with an increasing number of threads compared to the former
+ * lock-based implementation represented by {@link LockingFieldRetriever}.
+ *
+ * @author richter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachedFieldRetrieverBenchmark {
+    @Param({"0", "2", "4"})
+    private int hierarchyDepth;
+    private Class<?> entityClass;
+    private FieldRetriever cachedFieldRetriever;
+    private FieldRetriever lockingFieldRetriever;
+
+    @Setup
+    public void setup() {
+        entityClass = BenchmarkEntities.HIERARCHY[hierarchyDepth];
+        cachedFieldRetriever = new CachedFieldRetriever();
+        cachedFieldRetriever.retrieveRelevantFields(entityClass);
+        lockingFieldRetriever = new LockingFieldRetriever();
+        lockingFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    /**
+     * Measures a cache miss by using a new retriever for every invocation.
+     *
+     * @return the retrieved fields
+     */
+    @Benchmark
+    @Threads(1)
+    public List<Field> cachedMiss1Thread() {
+        return new CachedFieldRetriever().retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Field> cachedMissMaxThreads() {
+        return new CachedFieldRetriever().retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Field> cachedHit1Thread() {
+        return cachedFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Field> cachedHit4Threads() {
+        return cachedFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Field> cachedHitMaxThreads() {
+        return cachedFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Field> lockingHit1Thread() {
+        return lockingFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Field> lockingHit4Threads() {
+        return lockingFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Field> lockingHitMaxThreads() {
+        return lockingFieldRetriever.retrieveRelevantFields(entityClass);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.extension.EmailAddressValidator;
+import de.richtercloud.validation.tools.extension.NoEmptyEntriesListValidator;
+import de.richtercloud.validation.tools.extension.NoEmptyEntriesMapValidator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.validator.routines.EmailValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the validators of the {@code extension} package on large valid
+ * inputs which have to be checked completely.
+ *
+ * @author richter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtensionValidatorsBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+    private List<String> arrayList;
+    private List<String> linkedList;
+    private Map<String, String> map;
+    private List<String> emailAddresses;
+    private final NoEmptyEntriesListValidator noEmptyEntriesListValidator = new NoEmptyEntriesListValidator();
+    private final NoEmptyEntriesMapValidator noEmptyEntriesMapValidator = new NoEmptyEntriesMapValidator();
+    private final EmailAddressValidator emailAddressValidator = new EmailAddressValidator();
+
+    @Setup
+    public void setup() {
+        arrayList = new ArrayList<>(size);
+        map = new HashMap<>(size * 2);
+        for(int i=0; i<size; i++) {
+            arrayList.add("entry"+i);
+            map.put("key"+i, "value"+i);
+        }
+        linkedList = new LinkedList<>(arrayList);
+        emailAddresses = new ArrayList<>(size);
+        for(int i=0; i<size; i++) {
+            emailAddresses.add(String.format("first.last%d@sub%d.example.com",
+                    i,
+                    i % 10));
+        }
+    }
+
+    @Benchmark
+    public boolean noEmptyEntriesListArrayList() {
+        return noEmptyEntriesListValidator.isValid(arrayList,
+                null //context
+        );
+    }
+
+    @Benchmark
+    public boolean noEmptyEntriesListLinkedList() {
+        return noEmptyEntriesListValidator.isValid(linkedList,
+                null //context
+        );
+    }
+
+    @Benchmark
+    public boolean noEmptyEntriesMap() {
+        return noEmptyEntriesMapValidator.isValid(map,
+                null //context
+        );
+    }
+
+    @Benchmark
+    public int emailAddress() {
+        int retValue = 0;
+        for(String emailAddress : emailAddresses) {
+            if(emailAddressValidator.isValid(emailAddress,
+                    null //context
+            )) {
+                retValue++;
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * The validation performed by {@link EmailAddressValidator} before it
+     * received its own scanner as a baseline for {@link #emailAddress() }.
+     *
+     * @return the number of valid addresses
+     */
+    @Benchmark
+    public int emailAddressCommonsValidator() {
+        int retValue = 0;
+        for(String emailAddress : emailAddresses) {
+            if(EmailValidator.getInstance(false //allowLocal
+                    ).isValid(emailAddress)) {
+                retValue++;
+            }
+        }
+        return retValue;
+    }
+}
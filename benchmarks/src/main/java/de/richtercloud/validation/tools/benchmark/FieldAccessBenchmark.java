@@ -0,0 +1,83 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldAccessor;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading all relevant fields of many instances with
+ * {@link Field#get(java.lang.Object) } and with the {@link FieldAccessor}s of
+ * {@link CachedFieldRetriever}.
+ *
+ * @author richter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FieldAccessBenchmark {
+    @Param({"1000"})
+    private int instanceCount;
+    private Object[] instances;
+    private List<Field> fields;
+    private List<FieldAccessor> accessors;
+
+    @Setup
+    public void setup() {
+        CachedFieldRetriever fieldRetriever = new CachedFieldRetriever();
+        fields = fieldRetriever.retrieveRelevantFields(BenchmarkEntities.Level4.class);
+        accessors = fieldRetriever.retrieveRelevantFieldAccessors(BenchmarkEntities.Level4.class);
+        instances = new Object[instanceCount];
+        for(int i=0; i<instanceCount; i++) {
+            instances[i] = new BenchmarkEntities.Level4();
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws IllegalAccessException {
+        for(Object instance : instances) {
+            for(Field field : fields) {
+                blackhole.consume(field.get(instance));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fieldAccessor(Blackhole blackhole) {
+        for(Object instance : instances) {
+            for(FieldAccessor accessor : accessors) {
+                blackhole.consume(accessor.get(instance));
+            }
+        }
+    }
+}
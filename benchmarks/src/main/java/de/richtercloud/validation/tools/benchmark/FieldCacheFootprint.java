@@ -0,0 +1,216 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldRetriever;
+import de.richtercloud.validation.tools.annotations.Skip;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Measures the heap occupied by the cache of {@link CachedFieldRetriever}
+ * after retrieving the relevant fields of a synthetic model of many entity
+ * classes which share a few abstract base classes and compares it with the
+ * former implementation which stored a {@link LinkedList} of all fields of the
+ * inheritance hierarchy per class.
+ *
+ * The model is generated as source code and compiled with the system Java
+ * compiler, so that this has to run on a JDK. Run with
+ * {@code java -cp target/benchmarks.jar de.richtercloud.validation.tools.benchmark.FieldCacheFootprint [classCount]}.
+ * The heap is measured after explicit garbage collections and the results are
+ * therefore approximations.
+ *
+ * @author richter
+ */
+public final class FieldCacheFootprint {
+    private static final int CLASS_COUNT_DEFAULT = 10000;
+    private static final int BASE_CLASS_COUNT = 20;
+    private static final int ROOT_FIELD_COUNT = 6;
+    private static final int BASE_FIELD_COUNT = 6;
+    private static final int ENTITY_FIELD_COUNT = 4;
+    private static final String PACKAGE_NAME = "model";
+
+    public static void main(String[] args) throws IOException,
+            ClassNotFoundException {
+        int classCount = args.length > 0
+                ? Integer.parseInt(args[0])
+                : CLASS_COUNT_DEFAULT;
+        Path sourceDir = Files.createTempDirectory("field-cache-footprint");
+        List<Class<?>> classes = generateModel(sourceDir,
+                classCount);
+        //warm up reflection data of Class which is shared by both
+        //implementations
+        for(Class<?> clazz : classes) {
+            clazz.getDeclaredFields();
+        }
+        long former = measure(classes,
+                FormerFieldRetriever::new);
+        long current = measure(classes,
+                CachedFieldRetriever::new);
+        System.out.printf("classes: %d (%d fields per class including %d inherited)%n",
+                classCount,
+                ROOT_FIELD_COUNT + BASE_FIELD_COUNT + ENTITY_FIELD_COUNT,
+                ROOT_FIELD_COUNT + BASE_FIELD_COUNT);
+        System.out.printf("former implementation: %,d bytes%n",
+                former);
+        System.out.printf("CachedFieldRetriever: %,d bytes%n",
+                current);
+        System.out.printf("saved: %,d bytes (%.1f %%)%n",
+                former - current,
+                100.0 * (former - current) / former);
+    }
+
+    private static long measure(List<Class<?>> classes,
+            Supplier<FieldRetriever> retrieverSupplier) {
+        long before = usedHeap();
+        FieldRetriever retriever = retrieverSupplier.get();
+        for(Class<?> clazz : classes) {
+            retriever.retrieveRelevantFields(clazz);
+        }
+        long after = usedHeap();
+        //keep the retriever reachable until the measurement is done
+        if(retriever.retrieveRelevantFields(classes.get(0)).isEmpty()) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    @SuppressWarnings("PMD.DoNotCallGarbageCollectionExplicitly")
+    private static long usedHeap() {
+        for(int i=0; i<5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<Class<?>> generateModel(Path sourceDir,
+            int classCount) throws IOException,
+            ClassNotFoundException {
+        Path packageDir = sourceDir.resolve(PACKAGE_NAME);
+        Files.createDirectories(packageDir);
+        List<String> sourceFiles = new ArrayList<>(classCount + BASE_CLASS_COUNT + 1);
+        sourceFiles.add(writeClass(packageDir,
+                "public abstract class Root",
+                "root",
+                ROOT_FIELD_COUNT));
+        for(int i=0; i<BASE_CLASS_COUNT; i++) {
+            sourceFiles.add(writeClass(packageDir,
+                    String.format("public abstract class Base%d extends Root", i),
+                    "base",
+                    BASE_FIELD_COUNT));
+        }
+        for(int i=0; i<classCount; i++) {
+            sourceFiles.add(writeClass(packageDir,
+                    String.format("public class Entity%d extends Base%d", i, i % BASE_CLASS_COUNT),
+                    "entity",
+                    ENTITY_FIELD_COUNT));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if(compiler == null) {
+            throw new IllegalStateException("no system Java compiler available, run on a JDK");
+        }
+        List<String> compilerArgs = new ArrayList<>(sourceFiles);
+        compilerArgs.add(0, "-nowarn");
+        int result = compiler.run(null,
+                null,
+                null,
+                compilerArgs.toArray(new String[compilerArgs.size()]));
+        if(result != 0) {
+            throw new IllegalStateException("compilation of model failed");
+        }
+        ClassLoader classLoader = new URLClassLoader(new URL[] {sourceDir.toUri().toURL()},
+                FieldCacheFootprint.class.getClassLoader());
+        List<Class<?>> retValue = new ArrayList<>(classCount);
+        for(int i=0; i<classCount; i++) {
+            retValue.add(Class.forName(String.format("%s.Entity%d", PACKAGE_NAME, i),
+                    true,
+                    classLoader));
+        }
+        return retValue;
+    }
+
+    private static String writeClass(Path packageDir,
+            String declaration,
+            String fieldPrefix,
+            int fieldCount) throws IOException {
+        String className = declaration.replaceAll(".* class (\\w+).*", "$1");
+        StringBuilder source = new StringBuilder(256);
+        source.append("package ").append(PACKAGE_NAME).append(";\n")
+                .append(declaration).append(" {\n");
+        for(int i=0; i<fieldCount; i++) {
+            source.append("    private String ").append(fieldPrefix).append(i).append(";\n");
+        }
+        source.append("}\n");
+        Path sourceFile = packageDir.resolve(className + ".java");
+        Files.write(sourceFile,
+                source.toString().getBytes(StandardCharsets.UTF_8));
+        return sourceFile.toString();
+    }
+
+    /**
+     * The computation and storage of the former implementation of
+     * {@link CachedFieldRetriever} without its locking.
+     */
+    private static final class FormerFieldRetriever implements FieldRetriever {
+        private final Map<Class<?>, List<Field>> relevantFieldsCache = new HashMap<>();
+
+        @Override
+        public List<Field> retrieveRelevantFields(Class<?> clazz) {
+            List<Field> retValue = relevantFieldsCache.get(clazz);
+            if(retValue != null) {
+                return retValue;
+            }
+            retValue = new LinkedList<>();
+            for(Class<?> hierarchyClass : CachedFieldRetriever.generateInheritanceHierarchy(clazz)) {
+                retValue.addAll(Arrays.asList(hierarchyClass.getDeclaredFields()));
+            }
+            ListIterator<Field> retValueIt = retValue.listIterator();
+            while(retValueIt.hasNext()) {
+                Field field = retValueIt.next();
+                if(Modifier.isStatic(field.getModifiers())
+                        || Modifier.isTransient(field.getModifiers())
+                        || field.getAnnotation(Skip.class) != null) {
+                    retValueIt.remove();
+                    continue;
+                }
+                field.setAccessible(true);
+            }
+            relevantFieldsCache.put(clazz,
+                    retValue);
+            return retValue;
+        }
+    }
+
+    private FieldCacheFootprint() {
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldMetadataSnapshot;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.hibernate.validator.HibernateValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes to retrieve the relevant fields of all classes of
+ * Hibernate Validator for the first time with a snapshot imported with
+ * {@link CachedFieldRetriever#importSnapshot(java.nio.file.Path) } compared
+ * to computing them.
+ *
+ * The classes are loaded by a new class loader before each invocation so that
+ * the reflection data which the JVM caches per class is cold like after a
+ * restart.
+ *
+ * @author richter
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(3)
+@State(Scope.Benchmark)
+public class FieldMetadataSnapshotBenchmark {
+    private static final String PACKAGE_PATH = "org/hibernate/validator/";
+    private URL[] classpath;
+    private List<String> classNames;
+    private Path snapshotFile;
+    private List<Class<?>> classes;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        classpath = createClasspath();
+        classNames = new ArrayList<>();
+        try(JarFile jarFile = new JarFile(new File(HibernateValidator.class.getProtectionDomain().getCodeSource().getLocation().getPath()))) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while(entries.hasMoreElements()) {
+                String entryName = entries.nextElement().getName();
+                if(entryName.startsWith(PACKAGE_PATH)
+                        && entryName.endsWith(".class")) {
+                    classNames.add(entryName.substring(0, entryName.length()-".class".length()).replace('/', '.'));
+                }
+            }
+        }
+        CachedFieldRetriever fieldRetriever = new CachedFieldRetriever();
+        retrieveAll(fieldRetriever,
+                loadClasses());
+        snapshotFile = Files.createTempFile(FieldMetadataSnapshotBenchmark.class.getSimpleName(),
+                ".snapshot");
+        fieldRetriever.exportSnapshot(snapshotFile);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        classes = loadClasses();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        Files.delete(snapshotFile);
+    }
+
+    @Benchmark
+    public int compute() {
+        return retrieveAll(new CachedFieldRetriever(),
+                classes);
+    }
+
+    @Benchmark
+    public int importSnapshot() throws IOException {
+        CachedFieldRetriever fieldRetriever = new CachedFieldRetriever();
+        FieldMetadataSnapshot snapshot = fieldRetriever.importSnapshot(snapshotFile);
+        int retValue = retrieveAll(fieldRetriever,
+                classes);
+        if(snapshot.getResolvedCount() == 0) {
+            throw new IllegalStateException("no class has been resolved from the snapshot");
+        }
+        return retValue;
+    }
+
+    /**
+     * Retrieves the relevant fields of {@code classes} and skips the ones
+     * whose fields can't be made accessible.
+     *
+     * @return the number of retrieved fields
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static int retrieveAll(CachedFieldRetriever fieldRetriever,
+            List<Class<?>> classes) {
+        int retValue = 0;
+        for(Class<?> clazz : classes) {
+            try {
+                retValue += fieldRetriever.retrieveRelevantFields(clazz).size();
+            }catch(LinkageError | RuntimeException ex) {
+                //e.g. NoClassDefFoundError of optional dependencies
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Loads all classes with a new class loader which doesn't delegate to the
+     * class loader of the benchmark.
+     */
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    private List<Class<?>> loadClasses() {
+        ClassLoader classLoader = new URLClassLoader(classpath,
+                ClassLoader.getSystemClassLoader().getParent());
+        List<Class<?>> retValue = new ArrayList<>(classNames.size());
+        for(String className : classNames) {
+            try {
+                retValue.add(Class.forName(className,
+                        false, //initialize
+                        classLoader));
+            }catch(ClassNotFoundException | LinkageError ex) {
+                //optional dependencies are missing
+            }
+        }
+        return retValue;
+    }
+
+    private static URL[] createClasspath() throws MalformedURLException {
+        String[] classpathEntries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] retValue = new URL[classpathEntries.length];
+        for(int i=0; i<classpathEntries.length; i++) {
+            retValue[i] = Paths.get(classpathEntries[i]).toUri().toURL();
+        }
+        return retValue;
+    }
+}
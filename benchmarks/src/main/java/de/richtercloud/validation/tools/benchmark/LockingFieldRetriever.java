@@ -0,0 +1,55 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldRetriever;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The former implementation of {@link CachedFieldRetriever} which acquires a
+ * fair lock and copies the cached list on every call. Serves as baseline in
+ * order to compare the scalability of the lock-free read path.
+ *
+ * @author richter
+ */
+public class LockingFieldRetriever implements FieldRetriever {
+    private final Map<Class<?>, List<Field>> relevantFieldsCache = new HashMap<>();
+    private final Lock cacheLock = new ReentrantLock(true //fair
+    );
+    private final FieldRetriever delegate = new CachedFieldRetriever();
+
+    @Override
+    public List<Field> retrieveRelevantFields(Class<?> clazz) {
+        try {
+            cacheLock.lock();
+            List<Field> retValueCandidate = this.relevantFieldsCache.get(clazz);
+            if (retValueCandidate != null) {
+                return new LinkedList<>(retValueCandidate);
+            }
+            List<Field> retValue = new LinkedList<>(delegate.retrieveRelevantFields(clazz));
+            this.relevantFieldsCache.put(clazz, retValue);
+            return retValue;
+        }finally {
+            cacheLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.benchmark;
+
+import de.richtercloud.validation.tools.CachedFieldRetriever;
+import de.richtercloud.validation.tools.FieldNameLambda;
+import de.richtercloud.validation.tools.FieldRetriever;
+import de.richtercloud.validation.tools.OutputMode;
+import de.richtercloud.validation.tools.PathDescriptionCache;
+import de.richtercloud.validation.tools.ValidationTools;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }
+ * for every {@link OutputMode} with and without pathes across violation
+ * counts and path depths.
+ *
+ * @author richter
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationToolsBenchmark {
+    @Param({"PLAIN_TEXT", "HTML_HTML", "HTML_DIV", "JSON"})
+    private OutputMode outputMode;
+    @Param({"false", "true"})
+    private boolean skipPathes;
+    @Param({"1", "10", "100"})
+    private int violationCount;
+    @Param({"1", "4", "8"})
+    private int pathDepth;
+    private BenchmarkEntities.Root instance;
+    private Set<ConstraintViolation<BenchmarkEntities.Root>> violations;
+    private FieldRetriever fieldRetriever;
+    private final FieldNameLambda fieldNameLambda = field -> field.getName();
+    private final Map<Path, String> pathDescriptionMap = new HashMap<>();
+    private PathDescriptionCache pathDescriptionCache;
+
+    @Setup
+    public void setup() {
+        instance = BenchmarkEntities.Root.create(violationCount,
+                pathDepth);
+        violations = Validation.buildDefaultValidatorFactory().getValidator().validate(instance);
+        if(violations.size() != violationCount) {
+            throw new IllegalStateException(String.format("expected %d violations, but got %d",
+                    violationCount,
+                    violations.size()));
+        }
+        fieldRetriever = new CachedFieldRetriever();
+        pathDescriptionCache = new PathDescriptionCache(fieldRetriever,
+                fieldNameLambda);
+    }
+
+    @Benchmark
+    public String buildConstraintVioloationMessage() {
+        return ValidationTools.buildConstraintVioloationMessage(violations,
+                instance,
+                fieldRetriever,
+                pathDescriptionMap,
+                fieldNameLambda,
+                skipPathes,
+                outputMode);
+    }
+
+    @Benchmark
+    public String buildConstraintVioloationMessagePathDescriptionCache() {
+        return ValidationTools.buildConstraintVioloationMessage(violations,
+                instance,
+                pathDescriptionCache,
+                pathDescriptionMap,
+                skipPathes,
+                outputMode);
+    }
+}
@@ -14,38 +14,194 @@
  */
 package de.richtercloud.validation.tools;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import de.richtercloud.validation.tools.annotations.Skip;
 
 /**
  * A thread-safe implementation of {@link FieldRetriever} caching previously
  * requested results.
  *
+ * Cache hits are served without locking. The relevant fields of each class are
+ * computed at most once, without blocking concurrent requests for other
+ * classes. The returned lists are shared between callers and unmodifiable.
+ * The entry of a class is built from the cached entry of its superclass and
+ * the fields declared by the class itself so that shared superclasses are
+ * only scanned once.
+ *
+ * Classes are referenced as specified by {@link FieldCacheMode}. The number of
+ * cached classes can be limited in which case the classes which have been
+ * cached first are evicted first. In {@link FieldCacheMode#WEAK} the fields of
+ * the same class might be computed more than once by concurrent requests and
+ * counters only approximate the actual values.
+ *
+ * Hits, misses and the time taken by computations are reported to the
+ * listener of {@link ValidationMetrics} if one is set.
+ *
  * @author richter
  */
 public class CachedFieldRetriever implements FieldRetriever {
-
+    /**
+     * The maximum size which doesn't limit the number of cached classes.
+     */
+    public static final long MAXIMUM_SIZE_UNBOUNDED = Long.MAX_VALUE;
+    /**
+     * Allows to detect whether {@link ClassValue#get(java.lang.Class) }
+     * computed a value in the current thread in {@link FieldCacheMode#WEAK}
+     * while a {@link ValidationMetricsListener} is set.
+     */
+    private static final ThreadLocal<boolean[]> COMPUTED_IN_CURRENT_THREAD = new ThreadLocal<>();
+    /**
+     * The entry which {@link ClassValue#computeValue(java.lang.Class) } uses
+     * instead of computing one in {@link FieldCacheMode#WEAK} while
+     * {@link #overwriteCachedResult(java.lang.Class, java.util.List) } is
+     * running in the current thread.
+     */
+    private static final ThreadLocal<OverridingEntry> OVERRIDING_ENTRY_IN_CURRENT_THREAD = new ThreadLocal<>();
+    /**
+     * The number of classes which are loaded and cached by one task during
+     * warm-up.
+     */
+    private static final int WARM_UP_CHUNK_SIZE = 32;
+    private final FieldCacheMode cacheMode;
     /**
      * A cache for return values of {@link #retrieveRelevantFields(java.lang.Class)
-     * }.
+     * } and the name index used by
+     * {@link #retrieveRelevantField(java.lang.Class, java.lang.String) } in
+     * {@link FieldCacheMode#STRONG}.
+     */
+    private final ConcurrentMap<Class<?>, RelevantFields> relevantFieldsCache;
+    /**
+     * The cache in {@link FieldCacheMode#WEAK}. Holders allow to overwrite
+     * values which {@link ClassValue} doesn't support.
+     */
+    private final ClassValue<RelevantFieldsHolder> relevantFieldsClassValue;
+    /**
+     * Keeps track of the cached classes in the order of their insertion in
+     * order to evict them if a maximum size is specified and to enumerate them
+     * in {@link FieldCacheMode#WEAK}. {@code null} if the mode is
+     * {@link FieldCacheMode#STRONG} and the size is unbounded.
+     */
+    private final Cache<Class<?>, Boolean> cachedClasses;
+    /**
+     * The snapshot to resolve fields from before computing them or
+     * {@code null}.
      */
-    private final Map<Class<?>, List<Field>> relevantFieldsCache = new HashMap<>();
+    private volatile FieldMetadataSnapshot snapshot;
     /**
-     * Avoids multiple generations of the same cache value.
+     * Set while the current thread computes entries during warm-up which
+     * aren't counted as requests or misses and aren't reported to the
+     * {@link ValidationMetricsListener}.
      */
-    private final Lock cacheLock = new ReentrantLock(true //fair
-    );
+    private final ThreadLocal<Boolean> warmingUp = new ThreadLocal<>();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a retriever which references cached classes strongly and
+     * doesn't limit the number of cached classes.
+     */
+    public CachedFieldRetriever() {
+        this(FieldCacheMode.STRONG,
+                MAXIMUM_SIZE_UNBOUNDED);
+    }
+
+    /**
+     * Creates a new {@code CachedFieldRetriever}.
+     *
+     * @param cacheMode how to reference cached classes
+     * @param maximumSize the maximum number of cached classes or
+     *     {@link #MAXIMUM_SIZE_UNBOUNDED}
+     * @throws IllegalArgumentException if {@code cacheMode} is {@code null}
+     *     or {@code maximumSize} is less than {@code 1}
+     */
+    public CachedFieldRetriever(FieldCacheMode cacheMode,
+            long maximumSize) {
+        if(cacheMode == null) {
+            throw new IllegalArgumentException("cacheMode mustn't be null");
+        }
+        if(maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize has to be greater than 0");
+        }
+        this.cacheMode = cacheMode;
+        if(cacheMode == FieldCacheMode.STRONG) {
+            this.relevantFieldsCache = new ConcurrentHashMap<>();
+            this.relevantFieldsClassValue = null;
+        }else {
+            this.relevantFieldsCache = null;
+            this.relevantFieldsClassValue = new ClassValue<RelevantFieldsHolder>() {
+                @Override
+                protected RelevantFieldsHolder computeValue(Class<?> type) {
+                    OverridingEntry overridingEntry = OVERRIDING_ENTRY_IN_CURRENT_THREAD.get();
+                    RelevantFieldsHolder retValue;
+                    if(overridingEntry != null
+                            && overridingEntry.clazz == type) {
+                        //not a miss since nothing is computed
+                        retValue = new RelevantFieldsHolder(overridingEntry.relevantFields);
+                    }else {
+                        retValue = new RelevantFieldsHolder(computeCacheEntry(type,
+                                retrieveSuperclassCacheEntry(type)));
+                        if(!isWarmingUp()) {
+                            missCount.increment();
+                        }
+                        boolean[] computed = COMPUTED_IN_CURRENT_THREAD.get();
+                        if(computed != null) {
+                            computed[0] = true;
+                        }
+                    }
+                    //ClassValue doesn't invoke computeValue while holding a
+                    //lock, so that removals of evicted classes can't dead lock
+                    cachedClasses.put(type,
+                            Boolean.TRUE);
+                    return retValue;
+                }
+            };
+        }
+        if(cacheMode == FieldCacheMode.WEAK
+                || maximumSize != MAXIMUM_SIZE_UNBOUNDED) {
+            CacheBuilder<Object, Object> cachedClassesBuilder = CacheBuilder.newBuilder();
+            if(cacheMode == FieldCacheMode.WEAK) {
+                cachedClassesBuilder.weakKeys();
+            }
+            if(maximumSize != MAXIMUM_SIZE_UNBOUNDED) {
+                cachedClassesBuilder.maximumSize(maximumSize);
+            }
+            this.cachedClasses = cachedClassesBuilder
+                    .removalListener(this::onCachedClassRemoval)
+                    .build();
+        }else {
+            this.cachedClasses = null;
+        }
+    }
+
+    public FieldCacheMode getCacheMode() {
+        return cacheMode;
+    }
 
     public static List<Class<?>> generateInheritanceHierarchy(Class<?> entityClass) {
         List<Class<?>> retValue = new LinkedList<>();
@@ -61,69 +217,838 @@ public class CachedFieldRetriever implements FieldRetriever {
     /**
      * Recursively retrieves all fields from the inheritance hierachy of
      * {@code entityClass}, except {@code static} and {@code transient} fields
-     * and those annotated with {@link Skip}.
+     * and those annotated with {@link Skip}. The fields declared by
+     * {@code clazz} come first, followed by the fields of its superclass and so
+     * on.
      *
      * Results are cached in order to ensure that future calls return the same
      * result for the same argument value.
      *
      * @param clazz the class to retrieve for
-     * @return the list of retrieved fields
+     * @return the unmodifiable list of retrieved fields
      */
     @Override
     public List<Field> retrieveRelevantFields(Class<?> clazz) {
+        return retrieveCacheEntry(clazz).fieldList;
+    }
+
+    /**
+     * Retrieves the relevant field named {@code fieldName} from an index which
+     * is cached together with the result of
+     * {@link #retrieveRelevantFields(java.lang.Class) }.
+     *
+     * @param clazz the class to retrieve for
+     * @param fieldName the name of the field
+     * @return the relevant field or {@code null} if {@code clazz} doesn't have
+     *     a relevant field named {@code fieldName}
+     */
+    @Override
+    public Field retrieveRelevantField(Class<?> clazz,
+            String fieldName) {
+        return retrieveCacheEntry(clazz).getField(fieldName);
+    }
+
+    /**
+     * Retrieves accessors for the relevant fields which are created on the
+     * first request and cached together with the result of
+     * {@link #retrieveRelevantFields(java.lang.Class) }. The accessors of
+     * superclass fields are shared with the entry of the superclass.
+     *
+     * @param clazz the class to retrieve for
+     * @return the unmodifiable list of accessors
+     */
+    @Override
+    public List<FieldAccessor> retrieveRelevantFieldAccessors(Class<?> clazz) {
+        return retrieveCacheEntry(clazz).getAccessors();
+    }
+
+    /**
+     * Computes and caches the relevant fields of all concrete and abstract
+     * classes in the packages {@code packageNames} and their subpackages on
+     * the common {@link ForkJoinPool}. See
+     * {@link #warmUp(java.lang.ClassLoader, java.util.Collection, java.util.function.Predicate, java.util.concurrent.Executor) }
+     * for details.
+     *
+     * @param classLoader the class loader to scan and load classes with
+     * @param packageNames the names of the packages to scan, e.g.
+     *     {@code de.richtercloud.entities}
+     * @return the number of cached classes and the time the warm-up took
+     * @throws IOException if reading a directory or jar file of the classpath
+     *     fails
+     */
+    public FieldCacheWarmUpResult warmUp(ClassLoader classLoader,
+            String... packageNames) throws IOException {
+        return warmUp(classLoader,
+                Arrays.asList(packageNames),
+                CachedFieldRetriever::isWarmUpCandidate,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes and caches the relevant fields of the classes in the packages
+     * {@code packageNames} and their subpackages which are accepted by
+     * {@code classFilter} in order to avoid the computation during the first
+     * requests, e.g. before a node reports to be ready. Directories and jar
+     * files of the classpath of {@code classLoader} are scanned, classes are
+     * loaded without initializing them and the fields are computed in chunks
+     * in parallel on {@code executor}. Locations of the classpath which can't
+     * be scanned, e.g. remote URLs or nested jar files, are skipped and
+     * reported in {@link FieldCacheWarmUpResult#getUnscannedLocations() }.
+     *
+     * The computations during warm-up aren't counted as requests or misses
+     * and aren't reported to the {@link ValidationMetricsListener}, so that
+     * the statistics only reflect the requests of the application.
+     *
+     * Classes which can't be loaded or whose fields can't be computed because
+     * of missing dependencies are skipped and counted as failed. If more
+     * classes than the maximum size are found, the classes cached first are
+     * evicted.
+     *
+     * @param classLoader the class loader to scan and load classes with
+     * @param packageNames the names of the packages to scan, e.g.
+     *     {@code de.richtercloud.entities}
+     * @param classFilter selects the classes to cache, e.g. the ones
+     *     annotated with {@code javax.persistence.Entity}
+     * @param executor the executor to run the tasks on
+     * @return the number of cached classes and the time the warm-up took
+     * @throws IOException if reading a directory or jar file of the classpath
+     *     fails
+     * @throws IllegalArgumentException if any argument is {@code null} or
+     *     {@code packageNames} contains {@code null} or an empty name (the
+     *     default package can't be scanned in jar files)
+     */
+    public FieldCacheWarmUpResult warmUp(ClassLoader classLoader,
+            Collection<String> packageNames,
+            Predicate<Class<?>> classFilter,
+            Executor executor) throws IOException {
+        if(classLoader == null) {
+            throw new IllegalArgumentException("classLoader mustn't be null");
+        }
+        if(packageNames == null) {
+            throw new IllegalArgumentException("packageNames mustn't be null");
+        }
+        if(classFilter == null) {
+            throw new IllegalArgumentException("classFilter mustn't be null");
+        }
+        if(executor == null) {
+            throw new IllegalArgumentException("executor mustn't be null");
+        }
+        long start = System.nanoTime();
+        for(String packageName : packageNames) {
+            if(packageName == null || packageName.isEmpty()) {
+                throw new IllegalArgumentException("packageNames mustn't contain null or empty names");
+            }
+        }
+        Set<String> classNames = new LinkedHashSet<>();
+        List<String> unscannedLocations = ClasspathScanner.scanClassNames(classLoader,
+                packageNames,
+                classNames);
+        return warmUp(classNames.toArray(new String[classNames.size()]),
+                className -> Class.forName(className,
+                        false, //initialize
+                        classLoader),
+                classFilter,
+                executor,
+                start,
+                unscannedLocations);
+    }
+
+    /**
+     * Computes and caches the relevant fields of {@code classes} in parallel
+     * on the common {@link ForkJoinPool}.
+     *
+     * @param classes the classes to cache
+     * @return the number of cached classes and the time the warm-up took
+     * @throws IllegalArgumentException if {@code classes} is {@code null} or
+     *     contains {@code null}
+     */
+    public FieldCacheWarmUpResult warmUp(Collection<? extends Class<?>> classes) {
+        return warmUp(classes,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes and caches the relevant fields of {@code classes} in parallel
+     * on {@code executor}. The computations aren't counted as requests or
+     * misses and aren't reported to the {@link ValidationMetricsListener}.
+     *
+     * @param classes the classes to cache
+     * @param executor the executor to run the tasks on
+     * @return the number of cached classes and the time the warm-up took
+     * @throws IllegalArgumentException if {@code classes} or {@code executor}
+     *     is {@code null} or {@code classes} contains {@code null}
+     */
+    public FieldCacheWarmUpResult warmUp(Collection<? extends Class<?>> classes,
+            Executor executor) {
+        if(classes == null) {
+            throw new IllegalArgumentException("classes mustn't be null");
+        }
+        if(classes.contains(null)) {
+            throw new IllegalArgumentException("classes mustn't contain null");
+        }
+        if(executor == null) {
+            throw new IllegalArgumentException("executor mustn't be null");
+        }
+        return warmUp(classes.toArray(new Class<?>[classes.size()]),
+                clazz -> clazz,
+                clazz -> true,
+                executor,
+                System.nanoTime(),
+                Collections.emptyList());
+    }
+
+    /**
+     * Whether a class found on the classpath is cached by default during
+     * warm-up, i.e. isn't an interface, annotation, enum, anonymous,
+     * local or synthetic class.
+     */
+    private static boolean isWarmUpCandidate(Class<?> clazz) {
+        return !clazz.isInterface()
+                && !clazz.isEnum()
+                && !clazz.isAnonymousClass()
+                && !clazz.isLocalClass()
+                && !clazz.isSynthetic();
+    }
+
+    @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops",
+        "PMD.AvoidCatchingGenericException"
+        })
+    private <T> FieldCacheWarmUpResult warmUp(T[] elements,
+            ClassLoading<T> classLoading,
+            Predicate<Class<?>> classFilter,
+            Executor executor,
+            long start,
+            List<String> unscannedLocations) {
+        LongAdder classCount = new LongAdder();
+        LongAdder failedClassCount = new LongAdder();
+        List<CompletableFuture<Void>> chunkFutures = new ArrayList<>(elements.length / WARM_UP_CHUNK_SIZE + 1);
+        for(int chunkStart = 0; chunkStart < elements.length; chunkStart += WARM_UP_CHUNK_SIZE) {
+            int chunkStart0 = chunkStart;
+            int chunkEnd = Math.min(chunkStart + WARM_UP_CHUNK_SIZE,
+                    elements.length);
+            chunkFutures.add(CompletableFuture.runAsync(() -> {
+                    for(int i = chunkStart0; i < chunkEnd; i++) {
+                        try {
+                            Class<?> clazz = classLoading.load(elements[i]);
+                            if(classFilter.test(clazz)) {
+                                warmUpCacheEntry(clazz);
+                                classCount.increment();
+                            }
+                        }catch(ClassNotFoundException | LinkageError ex) {
+                            //NoClassDefFoundError is thrown by Class.forName
+                            //or Class.getDeclaredFields if dependencies of
+                            //the class are missing
+                            failedClassCount.increment();
+                        }catch(RuntimeException ex) {
+                            //e.g. InaccessibleObjectException of Java 9 and
+                            //newer if fields of a subclass of a JDK class
+                            //can't be made accessible which mustn't abort
+                            //the warm-up
+                            failedClassCount.increment();
+                        }
+                    }
+                },
+                    executor));
+        }
+        try {
+            CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture<?>[chunkFutures.size()])).join();
+        }catch(CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if(ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+        return new FieldCacheWarmUpResult(classCount.intValue(),
+                failedClassCount.intValue(),
+                System.nanoTime() - start,
+                unscannedLocations);
+    }
+
+    /**
+     * Computes the entry of {@code clazz} unless it's cached without counting
+     * the computation.
+     */
+    private void warmUpCacheEntry(Class<?> clazz) {
+        warmingUp.set(Boolean.TRUE);
+        try {
+            if(relevantFieldsClassValue != null) {
+                relevantFieldsClassValue.get(clazz);
+            }else if(relevantFieldsCache.get(clazz) == null) {
+                computeIfAbsent(clazz,
+                        new boolean[1]);
+            }
+        }finally {
+            warmingUp.remove();
+        }
+    }
+
+    private boolean isWarmingUp() {
+        return warmingUp.get() != null;
+    }
+
+    /**
+     * Writes the relevant fields of all cached classes to {@code file} which
+     * can be imported with {@link #importSnapshot(java.nio.file.Path) } after
+     * a restart in order to skip their computation. See
+     * {@link FieldMetadataSnapshot} for details. The snapshot is written to a
+     * temporary file in the directory of {@code file} which then replaces
+     * {@code file} so that an existing snapshot stays intact if writing fails.
+     * Classes whose declared fields can't be inspected anymore are skipped.
+     *
+     * @param file the file to write, an existing file is overwritten
+     * @return the number of classes written to the snapshot
+     * @throws IOException if writing {@code file} fails
+     * @throws IllegalArgumentException if {@code file} is {@code null}
+     */
+    public int exportSnapshot(Path file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file mustn't be null");
+        }
+        Map<Class<?>, List<Field>> declaredRelevantFields = new LinkedHashMap<>();
+        if(relevantFieldsCache != null) {
+            for(Map.Entry<Class<?>, RelevantFields> entry : relevantFieldsCache.entrySet()) {
+                declaredRelevantFields.put(entry.getKey(),
+                        entry.getValue().getDeclaredFields());
+            }
+        }else {
+            for(Class<?> clazz : cachedClasses.asMap().keySet()) {
+                declaredRelevantFields.put(clazz,
+                        relevantFieldsClassValue.get(clazz).relevantFields.getDeclaredFields());
+            }
+        }
+        return FieldMetadataSnapshot.write(file,
+                declaredRelevantFields);
+    }
+
+    /**
+     * Maps a snapshot written by
+     * {@link #exportSnapshot(java.nio.file.Path) } into memory and resolves
+     * the fields of classes from it on cache misses instead of computing
+     * them. Entries which don't match the loaded classes are ignored. A
+     * previously imported snapshot is replaced. The file stays mapped until
+     * the snapshot is garbage collected which prevents overwriting or
+     * deleting it on some platforms, e.g. Windows.
+     *
+     * @param file the snapshot file
+     * @return the imported snapshot which provides statistics
+     * @throws IOException if reading {@code file} fails or it isn't a
+     *     snapshot
+     * @throws IllegalArgumentException if {@code file} is {@code null}
+     */
+    public FieldMetadataSnapshot importSnapshot(Path file) throws IOException {
+        FieldMetadataSnapshot retValue = FieldMetadataSnapshot.open(file);
+        this.snapshot = retValue;
+        return retValue;
+    }
+
+    /**
+     * Removes the cached fields of {@code clazz} and of all cached classes
+     * assignable to it so that they're computed again on the next request.
+     * Subclasses are removed because their cached fields include the ones of
+     * {@code clazz}.
+     *
+     * @param clazz the class to remove
+     */
+    public void invalidate(Class<?> clazz) {
         if (clazz == null) {
             throw new IllegalArgumentException("clazz mustn't be null");
         }
-        List<Field> retValue = new LinkedList<>();
-        try {
-            cacheLock.lock();
-            List<Field> retValueCandidate = this.relevantFieldsCache.get(clazz);
-            if (retValueCandidate != null) {
-                return new LinkedList<>(retValueCandidate); //return a copy in order to avoid ConcurrentModificationException
-            }
-            List<Class<?>> hierarchyClasses = generateInheritanceHierarchy(clazz);
-            for(Class<?> hierarchyClass : hierarchyClasses) {
-                retValue.addAll(Arrays.asList(hierarchyClass.getDeclaredFields()));
-            }
-            Set<Field> seenEntityClassFields = new HashSet<>();
-            ListIterator<Field> entityClassFieldsIt = retValue.listIterator();
-            while (entityClassFieldsIt.hasNext()) {
-                Field entityClassFieldsNxt = entityClassFieldsIt.next();
-                if (Modifier.isStatic(entityClassFieldsNxt.getModifiers())) {
-                    entityClassFieldsIt.remove();
-                    continue;
-                }
-                if (Modifier.isTransient(entityClassFieldsNxt.getModifiers())) {
-                    entityClassFieldsIt.remove();
-                    continue;
-                }
-                if (seenEntityClassFields.contains(entityClassFieldsNxt)) {
-                    entityClassFieldsIt.remove();
-                    continue;
-                }
-                Skip entityClassFieldNxtSkip = entityClassFieldsNxt.getAnnotation(Skip.class);
-                if(entityClassFieldNxtSkip != null) {
-                    entityClassFieldsIt.remove();
-                    continue;
-                }
-                seenEntityClassFields.add(entityClassFieldsNxt);
-                entityClassFieldsNxt.setAccessible(true);
+        removeCachedClass(clazz);
+        invalidateSubclasses(clazz);
+    }
+
+    /**
+     * Removes the cached fields of all cached classes assignable to
+     * {@code clazz} except {@code clazz} itself.
+     */
+    private void invalidateSubclasses(Class<?> clazz) {
+        Set<Class<?>> cachedClassSet = cachedClasses != null
+                ? cachedClasses.asMap().keySet()
+                : relevantFieldsCache.keySet();
+        List<Class<?>> invalidatedClasses = new LinkedList<>();
+        for(Class<?> cachedClass : cachedClassSet) {
+            if(cachedClass != clazz
+                    && clazz.isAssignableFrom(cachedClass)) {
+                invalidatedClasses.add(cachedClass);
             }
-            this.relevantFieldsCache.put(clazz, retValue);
+        }
+        for(Class<?> invalidatedClass : invalidatedClasses) {
+            removeCachedClass(invalidatedClass);
+        }
+    }
+
+    private void removeCachedClass(Class<?> clazz) {
+        if(cachedClasses != null) {
+            cachedClasses.invalidate(clazz);
+                //removes from relevantFieldsCache or
+                //relevantFieldsClassValue in onCachedClassRemoval
+        }
+        removeCacheEntry(clazz);
+    }
+
+    /**
+     * Removes the cached fields of all classes.
+     */
+    public void invalidateAll() {
+        if(cachedClasses != null) {
+            cachedClasses.invalidateAll();
+        }
+        if(relevantFieldsCache != null) {
+            relevantFieldsCache.clear();
+        }
+    }
+
+    /**
+     * The number of requests which have been served from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return Math.max(0,
+                requestCount.sum() - missCount.sum());
+    }
+
+    /**
+     * The number of requests which required the computation of relevant
+     * fields.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * The number of classes which have been removed from the cache because
+     * the maximum size has been exceeded or because they've been garbage
+     * collected in {@link FieldCacheMode#WEAK}.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * The number of cached classes.
+     *
+     * @return the size
+     */
+    public long size() {
+        if(cachedClasses != null) {
+            return cachedClasses.size();
+        }
+        return relevantFieldsCache.size();
+    }
+
+    /*
+    internal implementation notes:
+    - the cache is queried with get before computeIfAbsent because
+    ConcurrentHashMap.computeIfAbsent locks the bin of the key even if a
+    mapping is present in Java 8
+    */
+    private RelevantFields retrieveCacheEntry(Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz mustn't be null");
+        }
+        requestCount.increment();
+        ValidationMetricsListener metricsListener = ValidationMetrics.getListener();
+        if(relevantFieldsClassValue != null) {
+            if(metricsListener == null) {
+                return relevantFieldsClassValue.get(clazz).relevantFields;
+            }
+            boolean[] computed = new boolean[1];
+            RelevantFields retValue = retrieveClassValue(clazz,
+                    computed);
+            if(!computed[0]) {
+                metricsListener.onFieldCacheHit(clazz);
+            }
+            return retValue;
+        }
+        RelevantFields retValue = this.relevantFieldsCache.get(clazz);
+        if (retValue != null) {
+            if(metricsListener != null) {
+                metricsListener.onFieldCacheHit(clazz);
+            }
+            return retValue;
+        }
+        boolean[] computed = new boolean[1];
+        retValue = computeIfAbsent(clazz,
+                computed);
+        if(!computed[0] && metricsListener != null) {
+            metricsListener.onFieldCacheHit(clazz);
+        }
+        return retValue;
+    }
+
+    /**
+     * Retrieves the entry of the superclass of {@code clazz} which is used to
+     * build the entry of {@code clazz}. This doesn't count as a request unless
+     * the entry has to be computed in order to keep the hit count equal to the
+     * number of requests minus the number of misses.
+     *
+     * @return the entry or {@code null} if {@code clazz} doesn't have a
+     *     superclass other than {@link Object}
+     */
+    private RelevantFields retrieveSuperclassCacheEntry(Class<?> clazz) {
+        Class<?> superclass = clazz.getSuperclass();
+        if(superclass == null
+                || superclass.equals(Object.class)) {
+            return null;
+        }
+        RelevantFields retValue;
+        boolean[] computed = new boolean[1];
+        if(relevantFieldsClassValue != null) {
+            retValue = retrieveClassValue(superclass,
+                    computed);
+        }else {
+            retValue = this.relevantFieldsCache.get(superclass);
+            if(retValue != null) {
+                return retValue;
+            }
+            retValue = computeIfAbsent(superclass,
+                    computed);
+        }
+        if(computed[0]
+                && !isWarmingUp()) {
+            requestCount.increment();
+        }
+        return retValue;
+    }
+
+    /*
+    internal implementation notes:
+    - the superclass entry is retrieved before computeIfAbsent because
+    ConcurrentHashMap doesn't allow modifications of other mappings inside the
+    mapping function
+    - classes are registered in cachedClasses after computeIfAbsent returned
+    because evictions modify relevantFieldsCache which mustn't happen inside
+    the mapping function
+    */
+    private RelevantFields computeIfAbsent(Class<?> clazz,
+            boolean[] computed) {
+        RelevantFields superclassEntry = retrieveSuperclassCacheEntry(clazz);
+        RelevantFields retValue = this.relevantFieldsCache.computeIfAbsent(clazz,
+                key -> {
+                    computed[0] = true;
+                    return computeCacheEntry(key,
+                            superclassEntry);
+                });
+        if(computed[0]) {
+            if(!isWarmingUp()) {
+                missCount.increment();
+            }
+            if(cachedClasses != null) {
+                cachedClasses.put(clazz,
+                        Boolean.TRUE);
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Retrieves from {@link #relevantFieldsClassValue} and records in
+     * {@code computed} whether {@link ClassValue#computeValue(java.lang.Class) }
+     * has been invoked by the current thread.
+     */
+    /*
+    internal implementation notes:
+    - the flag is saved and restored because computations retrieve the entries
+    of superclasses recursively
+    */
+    private RelevantFields retrieveClassValue(Class<?> clazz,
+            boolean[] computed) {
+        boolean[] previousComputed = COMPUTED_IN_CURRENT_THREAD.get();
+        COMPUTED_IN_CURRENT_THREAD.set(computed);
+        try {
+            return relevantFieldsClassValue.get(clazz).relevantFields;
         }finally {
-            cacheLock.unlock();
+            COMPUTED_IN_CURRENT_THREAD.set(previousComputed);
+        }
+    }
+
+    private RelevantFields computeCacheEntry(Class<?> clazz,
+            RelevantFields superclassEntry) {
+        ValidationMetricsListener metricsListener = ValidationMetrics.getListener();
+        if(metricsListener == null
+                || isWarmingUp()) {
+            return new RelevantFields(retrieveDeclaredRelevantFields(clazz),
+                    superclassEntry);
         }
+        long start = System.nanoTime();
+        RelevantFields retValue = new RelevantFields(retrieveDeclaredRelevantFields(clazz),
+                superclassEntry);
+        metricsListener.onFieldCacheMiss(clazz,
+                System.nanoTime() - start);
         return retValue;
     }
 
+    private List<Field> retrieveDeclaredRelevantFields(Class<?> clazz) {
+        FieldMetadataSnapshot snapshot0 = snapshot;
+        if(snapshot0 != null) {
+            List<Field> retValue = snapshot0.resolveDeclaredRelevantFields(clazz);
+            if(retValue != null) {
+                return retValue;
+            }
+        }
+        return computeDeclaredRelevantFields(clazz);
+    }
+
+    private void removeCacheEntry(Class<?> clazz) {
+        if(relevantFieldsClassValue != null) {
+            relevantFieldsClassValue.remove(clazz);
+        }else {
+            relevantFieldsCache.remove(clazz);
+        }
+    }
+
+    private void onCachedClassRemoval(RemovalNotification<Class<?>, Boolean> notification) {
+        if(notification.wasEvicted()) {
+            evictionCount.increment();
+        }
+        Class<?> clazz = notification.getKey();
+        if(clazz != null) {
+            //null if the class has been garbage collected in which case the
+            //ClassValue has been collected with it
+            removeCacheEntry(clazz);
+        }
+    }
+
+    /**
+     * Computes the relevant fields declared by {@code clazz} itself in case of
+     * a cache miss. The fields of superclasses are taken from their cache
+     * entries. Subclasses can override this method in order to provide the
+     * fields from another source than reflection.
+     *
+     * @param clazz the class to compute the relevant fields for
+     * @return the relevant fields declared by {@code clazz}
+     */
+    protected List<Field> computeDeclaredRelevantFields(Class<?> clazz) {
+        Field[] declaredFields = clazz.getDeclaredFields();
+        List<Field> retValue = new ArrayList<>(declaredFields.length);
+        for(Field declaredField : declaredFields) {
+            if (Modifier.isStatic(declaredField.getModifiers())) {
+                continue;
+            }
+            if (Modifier.isTransient(declaredField.getModifiers())) {
+                continue;
+            }
+            Skip declaredFieldSkip = declaredField.getAnnotation(Skip.class);
+            if(declaredFieldSkip != null) {
+                continue;
+            }
+            declaredField.setAccessible(true);
+            retValue.add(declaredField);
+        }
+        return retValue;
+    }
+
+    /**
+     * Searches {@code fields} for a field named {@code fieldName} starting at
+     * {@code start} and wrapping around which finds fields in declaration
+     * order without scanning the array again for each of them.
+     *
+     * @return the index of the field or {@code -1} if there's no field named
+     *     {@code fieldName}
+     */
+    static int indexOfField(Field[] fields,
+            String fieldName,
+            int start) {
+        for(int i=0; i<fields.length; i++) {
+            int index = (start+i) % fields.length;
+            if(fields[index].getName().equals(fieldName)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the cached relevant fields of {@code entityClass} with
+     * {@code relevantFields} without computing them. Subclasses of
+     * {@code entityClass} inherit the overriding fields in place of the ones
+     * of {@code entityClass} and its superclasses: cached subclasses are
+     * removed from the cache and computed again from the overriding entry on
+     * their next request.
+     *
+     * @param entityClass the class whose cached result to replace
+     * @param relevantFields all relevant fields of {@code entityClass}
+     *     including the ones of its superclasses
+     */
     protected void overwriteCachedResult(Class<?> entityClass,
             List<Field> relevantFields) {
-        try {
-            cacheLock.lock();
+        RelevantFields overridingEntry = new RelevantFields(relevantFields,
+                null //superclassEntry
+        );
+        if(relevantFieldsClassValue != null) {
+            //ClassValue doesn't allow to put a value, so that computeValue
+            //picks up the entry if the class isn't cached yet
+            OVERRIDING_ENTRY_IN_CURRENT_THREAD.set(new OverridingEntry(entityClass,
+                    overridingEntry));
+            try {
+                relevantFieldsClassValue.get(entityClass).relevantFields = overridingEntry;
+            }finally {
+                OVERRIDING_ENTRY_IN_CURRENT_THREAD.remove();
+            }
+        }else {
             relevantFieldsCache.put(entityClass,
-                    relevantFields);
-        }finally {
-            cacheLock.unlock();
+                    overridingEntry);
+            if(cachedClasses != null) {
+                cachedClasses.put(entityClass,
+                        Boolean.TRUE);
+            }
+        }
+        invalidateSubclasses(entityClass);
+    }
+
+    /**
+     * A cache entry consisting of the relevant fields of a class in one array,
+     * starting with the fields declared by the class. The entry of the
+     * superclass is referenced in order to look up fields by name without
+     * indexing the fields of the superclass again.
+     */
+    private static final class RelevantFields {
+        /**
+         * The number of declared fields up to which fields are looked up by
+         * name with a linear search instead of an index.
+         */
+        private static final int DECLARED_INDEX_THRESHOLD = 8;
+        private final Field[] fields;
+        private final List<Field> fieldList;
+        private final int declaredCount;
+        private final Map<String, Field> declaredIndex;
+        private final RelevantFields superclassEntry;
+        /**
+         * Created on the first request since most users don't need them.
+         * Concurrent requests might create equivalent lists of which all but
+         * one are discarded.
+         */
+        private volatile List<FieldAccessor> accessors;
+
+        RelevantFields(List<Field> declaredFields,
+                RelevantFields superclassEntry) {
+            this.declaredCount = declaredFields.size();
+            if(superclassEntry == null) {
+                this.fields = declaredFields.toArray(new Field[declaredCount]);
+            }else if(declaredCount == 0) {
+                //share the array and the list of the superclass
+                this.fields = superclassEntry.fields;
+            }else {
+                this.fields = new Field[declaredCount + superclassEntry.fields.length];
+                for(int i=0; i<declaredCount; i++) {
+                    this.fields[i] = declaredFields.get(i);
+                }
+                System.arraycopy(superclassEntry.fields,
+                        0,
+                        this.fields,
+                        declaredCount,
+                        superclassEntry.fields.length);
+            }
+            if(superclassEntry != null
+                    && declaredCount == 0) {
+                this.fieldList = superclassEntry.fieldList;
+            }else {
+                this.fieldList = Collections.unmodifiableList(Arrays.asList(this.fields));
+            }
+            if(declaredCount > DECLARED_INDEX_THRESHOLD) {
+                this.declaredIndex = new HashMap<>(declaredCount * 2);
+                for(int i=0; i<declaredCount; i++) {
+                    //keep the first field in case of shadowed fields in order
+                    //to be consistent with
+                    //FieldRetriever.retrieveRelevantField
+                    this.declaredIndex.putIfAbsent(fields[i].getName(),
+                            fields[i]);
+                }
+            }else {
+                this.declaredIndex = null;
+            }
+            this.superclassEntry = superclassEntry;
+        }
+
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+        List<FieldAccessor> getAccessors() {
+            List<FieldAccessor> retValue = accessors;
+            if(retValue != null) {
+                return retValue;
+            }
+            if(superclassEntry != null
+                    && declaredCount == 0) {
+                retValue = superclassEntry.getAccessors();
+            }else {
+                FieldAccessor[] accessorArray = new FieldAccessor[fields.length];
+                for(int i=0; i<declaredCount; i++) {
+                    accessorArray[i] = new FieldAccessor(fields[i]);
+                }
+                if(superclassEntry != null) {
+                    List<FieldAccessor> superclassAccessors = superclassEntry.getAccessors();
+                    for(int i=0; i<superclassAccessors.size(); i++) {
+                        accessorArray[declaredCount+i] = superclassAccessors.get(i);
+                    }
+                }
+                retValue = Collections.unmodifiableList(Arrays.asList(accessorArray));
+            }
+            accessors = retValue;
+            return retValue;
+        }
+
+        Field getField(String fieldName) {
+            RelevantFields entry = this;
+            while(entry != null) {
+                Field retValue = entry.getDeclaredField(fieldName);
+                if(retValue != null) {
+                    return retValue;
+                }
+                entry = entry.superclassEntry;
+            }
+            return null;
+        }
+
+        private List<Field> getDeclaredFields() {
+            return fieldList.subList(0,
+                    declaredCount);
+        }
+
+        private Field getDeclaredField(String fieldName) {
+            if(declaredIndex != null) {
+                return declaredIndex.get(fieldName);
+            }
+            for(int i=0; i<declaredCount; i++) {
+                if(fields[i].getName().equals(fieldName)) {
+                    return fields[i];
+                }
+            }
+            return null;
         }
     }
+
+    private static final class RelevantFieldsHolder {
+        private volatile RelevantFields relevantFields;
+
+        RelevantFieldsHolder(RelevantFields relevantFields) {
+            this.relevantFields = relevantFields;
+        }
+    }
+
+    private static final class OverridingEntry {
+        private final Class<?> clazz;
+        private final RelevantFields relevantFields;
+
+        OverridingEntry(Class<?> clazz,
+                RelevantFields relevantFields) {
+            this.clazz = clazz;
+            this.relevantFields = relevantFields;
+        }
+    }
+
+    /**
+     * Loads the class of an element to warm up.
+     */
+    @FunctionalInterface
+    private interface ClassLoading<T> {
+
+        Class<?> load(T element) throws ClassNotFoundException;
+    }
 }
@@ -0,0 +1,332 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Finds the names of the classes in packages on the local classpath without
+ * loading them.
+ *
+ * The roots of the classpath are the URLs of the {@link URLClassLoader}s in
+ * the parent chain of the class loader, the entries of
+ * {@code java.class.path} if the chain contains the system class loader and
+ * the entries of the {@code Class-Path} attribute of the manifests of jar
+ * files. Directories and all entries of jar files are listed, so that jar
+ * files without directory entries, e.g. built with {@code zip -D} or by
+ * shading, are supported. Locations of the packages which class loaders report
+ * through {@link ClassLoader#getResources(java.lang.String) } and which aren't
+ * below a root, e.g. of custom class loaders, are scanned as well if they're
+ * directories or jar files. Other roots and locations, e.g. remote URLs or
+ * nested jar files, can't be scanned and are reported. Jar files without
+ * directory entries which are only reachable through custom class loaders
+ * aren't found.
+ *
+ * @author richter
+ */
+final class ClasspathScanner {
+    private static final String CLASS_FILE_SUFFIX = ".class";
+    private static final String JAR_URL_SEPARATOR = "!/";
+
+    /**
+     * Adds the names of all classes in the packages {@code packageNames} and
+     * their subpackages which are visible to {@code classLoader} to
+     * {@code classNames}.
+     *
+     * @param classLoader the class loader to scan
+     * @param packageNames the names of the packages, e.g.
+     *     {@code de.richtercloud.entities}
+     * @param classNames the set to add the binary names of classes to
+     * @return the locations which couldn't be scanned
+     * @throws IOException if reading a directory or jar file fails
+     */
+    static List<String> scanClassNames(ClassLoader classLoader,
+            Collection<String> packageNames,
+            Set<String> classNames) throws IOException {
+        List<String> resourceNames = new ArrayList<>(packageNames.size());
+        for(String packageName : packageNames) {
+            resourceNames.add(packageName.replace('.', '/'));
+        }
+        List<String> unscannedLocations = new ArrayList<>();
+        Set<Path> scannedRoots = new LinkedHashSet<>();
+        Deque<URL> roots = new ArrayDeque<>(retrieveRoots(classLoader));
+        while(!roots.isEmpty()) {
+            URL root = roots.poll();
+            Path rootPath = toPath(root);
+            if(rootPath == null) {
+                unscannedLocations.add(root.toString());
+                continue;
+            }
+            if(!scannedRoots.add(rootPath)) {
+                continue;
+            }
+            if(Files.isDirectory(rootPath)) {
+                for(String resourceName : resourceNames) {
+                    Path packageDirectory = rootPath.resolve(resourceName);
+                    if(Files.isDirectory(packageDirectory)) {
+                        scanDirectory(packageDirectory,
+                                resourceName,
+                                classNames);
+                    }
+                }
+            }else if(Files.isRegularFile(rootPath)) {
+                try(JarFile jarFile = new JarFile(rootPath.toFile())) {
+                    scanJarEntries(jarFile,
+                            resourceNames,
+                            classNames);
+                    roots.addAll(retrieveManifestClassPath(jarFile,
+                            root));
+                }
+            }
+            //missing entries of the classpath are ignored like by class
+            //loaders
+        }
+        //locations of custom class loaders
+        for(String resourceName : resourceNames) {
+            Enumeration<URL> resources = classLoader.getResources(resourceName);
+            while(resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                if("file".equals(resource.getProtocol())) {
+                    Path packageDirectory = toPath(resource);
+                    if(packageDirectory != null
+                            && !isBelowRoot(packageDirectory, scannedRoots)) {
+                        scanDirectory(packageDirectory,
+                                resourceName,
+                                classNames);
+                    }
+                }else if("jar".equals(resource.getProtocol())) {
+                    scanJar(resource,
+                            resourceName,
+                            scannedRoots,
+                            classNames,
+                            unscannedLocations);
+                }else {
+                    unscannedLocations.add(resource.toString());
+                }
+            }
+        }
+        return unscannedLocations;
+    }
+
+    /**
+     * Collects the URLs of the {@link URLClassLoader}s in the parent chain of
+     * {@code classLoader} and the entries of {@code java.class.path} if the
+     * chain contains the system class loader which isn't a
+     * {@code URLClassLoader} in Java 9 and newer.
+     */
+    private static List<URL> retrieveRoots(ClassLoader classLoader) throws MalformedURLException {
+        List<URL> retValue = new ArrayList<>();
+        ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+        boolean systemClassLoaderContained = false;
+        ClassLoader chainClassLoader = classLoader;
+        while(chainClassLoader != null) {
+            if(chainClassLoader instanceof URLClassLoader) {
+                retValue.addAll(Arrays.asList(((URLClassLoader) chainClassLoader).getURLs()));
+            }
+            if(chainClassLoader == systemClassLoader) {
+                systemClassLoaderContained = true;
+            }
+            chainClassLoader = chainClassLoader.getParent();
+        }
+        if(systemClassLoaderContained) {
+            String classPath = System.getProperty("java.class.path", "");
+            for(String classPathEntry : classPath.split(File.pathSeparator)) {
+                if(!classPathEntry.isEmpty()) {
+                    retValue.add(Paths.get(classPathEntry).toUri().toURL());
+                }
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Resolves the entries of the {@code Class-Path} attribute of the manifest
+     * of {@code jarFile} against {@code jarURL}, e.g. of the manifest-only
+     * jar files which build tools use in order to shorten command lines.
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static List<URL> retrieveManifestClassPath(JarFile jarFile,
+            URL jarURL) throws IOException {
+        List<URL> retValue = new ArrayList<>();
+        Manifest manifest = jarFile.getManifest();
+        if(manifest == null) {
+            return retValue;
+        }
+        String classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+        if(classPath == null) {
+            return retValue;
+        }
+        for(String classPathEntry : classPath.trim().split("\\s+")) {
+            if(!classPathEntry.isEmpty()) {
+                retValue.add(new URL(jarURL,
+                        classPathEntry));
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Converts a {@code file} URL to a path.
+     *
+     * @return the path or {@code null} if {@code url} doesn't refer to a
+     *     local file
+     */
+    private static Path toPath(URL url) {
+        if(!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        }catch(URISyntaxException | IllegalArgumentException ex) {
+            //IllegalArgumentException includes InvalidPathException
+            return null;
+        }
+    }
+
+    private static boolean isBelowRoot(Path path,
+            Set<Path> roots) {
+        Path normalizedPath = path.toAbsolutePath().normalize();
+        for(Path root : roots) {
+            if(normalizedPath.startsWith(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void scanDirectory(Path packageDirectory,
+            String resourceName,
+            Set<String> classNames) throws IOException {
+        String packageName = resourceName.replace('/', '.');
+        try(Stream<Path> paths = Files.walk(packageDirectory)) {
+            paths.forEach(path -> {
+                String relativePath = packageDirectory.relativize(path).toString();
+                if(Files.isRegularFile(path)
+                        && isClassFile(relativePath)) {
+                    String relativeClassName = toClassName(relativePath.replace(path.getFileSystem().getSeparator(), "/"));
+                    classNames.add(packageName+"."+relativeClassName);
+                }
+            });
+        }
+    }
+
+    /**
+     * Scans the jar file of a package location reported by a class loader
+     * unless it's a root which has been scanned already.
+     */
+    private static void scanJar(URL resource,
+            String resourceName,
+            Set<Path> scannedRoots,
+            Set<String> classNames,
+            List<String> unscannedLocations) throws IOException {
+        String jarFileURL = resource.getFile();
+        int separatorIndex = jarFileURL.indexOf(JAR_URL_SEPARATOR);
+        if(separatorIndex != -1) {
+            Path jarPath = toPath(new URL(jarFileURL.substring(0, separatorIndex)));
+            if(jarPath != null && scannedRoots.contains(jarPath)) {
+                return;
+            }
+            if(jarFileURL.indexOf(JAR_URL_SEPARATOR, separatorIndex+1) != -1) {
+                //nested jar file
+                unscannedLocations.add(resource.toString());
+                return;
+            }
+        }
+        URLConnection connection = resource.openConnection();
+        if(!(connection instanceof JarURLConnection)) {
+            unscannedLocations.add(resource.toString());
+            return;
+        }
+        JarURLConnection jarConnection = (JarURLConnection) connection;
+        //avoid closing a jar file which is shared with the class loader
+        jarConnection.setUseCaches(false);
+        try(JarFile jarFile = jarConnection.getJarFile()) {
+            scanJarEntries(jarFile,
+                    Collections.singletonList(resourceName),
+                    classNames);
+        }
+    }
+
+    private static void scanJarEntries(JarFile jarFile,
+            List<String> resourceNames,
+            Set<String> classNames) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while(entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String entryName = entry.getName();
+            if(!entry.isDirectory()
+                    && isClassFile(entryName)
+                    && isInPackages(entryName, resourceNames)) {
+                classNames.add(toClassName(entryName));
+            }
+        }
+    }
+
+    private static boolean isInPackages(String entryName,
+            List<String> resourceNames) {
+        for(String resourceName : resourceNames) {
+            if(entryName.length() > resourceName.length()
+                    && entryName.startsWith(resourceName)
+                    && entryName.charAt(resourceName.length()) == '/') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether {@code path} refers to a class file of a class, i.e. not of
+     * {@code package-info} or {@code module-info} and not inside
+     * {@code META-INF/versions} of a multi-release jar.
+     */
+    private static boolean isClassFile(String path) {
+        return path.endsWith(CLASS_FILE_SUFFIX)
+                && !path.endsWith("-info"+CLASS_FILE_SUFFIX)
+                && !path.startsWith("META-INF/");
+    }
+
+    private static String toClassName(String path) {
+        return path.substring(0, path.length()-CLASS_FILE_SUFFIX.length())
+                .replace('/', '.');
+    }
+
+    private ClasspathScanner() {
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+
+/**
+ * Passes characters through to another {@link Appendable} and counts them.
+ *
+ * @author richter
+ */
+final class CountingAppendable implements Appendable {
+    private final Appendable target;
+    private long count;
+
+    CountingAppendable(Appendable target) {
+        this.target = target;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence csq0 = csq == null ? "null" : csq;
+        target.append(csq0);
+        count += csq0.length();
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq,
+            int start,
+            int end) throws IOException {
+        CharSequence csq0 = csq == null ? "null" : csq;
+        target.append(csq0,
+                start,
+                end);
+        count += end - start;
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        target.append(c);
+        count++;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
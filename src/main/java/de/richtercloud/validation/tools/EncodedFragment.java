@@ -0,0 +1,65 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A constant part of a message together with its UTF-8 encoding which is
+ * written to {@link Utf8Appendable}s without encoding it again. The encoding
+ * is created when the fragment is written to a {@link Utf8Appendable} for the
+ * first time so that fragments which are only written to character targets
+ * don't pay for it.
+ *
+ * @author richter
+ */
+final class EncodedFragment {
+    private final String value;
+    /**
+     * Concurrent first writes might encode the value more than once of which
+     * all but one encoding are discarded.
+     */
+    private volatile byte[] bytes;
+
+    EncodedFragment(String value) {
+        this.value = value;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Writes the fragment to {@code target} which receives the encoded bytes
+     * if it's a {@link Utf8Appendable} and the characters otherwise.
+     *
+     * @param target the target to write to
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendTo(Appendable target) throws IOException {
+        if(target instanceof Utf8Appendable) {
+            byte[] bytes0 = bytes;
+            if(bytes0 == null) {
+                bytes0 = value.getBytes(StandardCharsets.UTF_8);
+                bytes = bytes0;
+            }
+            ((Utf8Appendable) target).appendEncoded(bytes0,
+                    value.length());
+        }else {
+            target.append(value);
+        }
+    }
+}
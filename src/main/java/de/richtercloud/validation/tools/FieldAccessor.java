@@ -0,0 +1,115 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads the value of a field through a {@link MethodHandle} which is created
+ * once and avoids the access checks and argument handling of
+ * {@link Field#get(java.lang.Object) } on every call.
+ *
+ * Instances are immutable and thread-safe. Retrieve them with
+ * {@link FieldRetriever#retrieveRelevantFieldAccessors(java.lang.Class) } in
+ * order to reuse them.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- the getter is adapted to (Object)Object so that it can be invoked with
+invokeExact which is the cheapest way to invoke a handle which isn't a constant
+- VarHandles aren't used since they require Java 9
+*/
+public final class FieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class,
+            Object.class);
+    private final Field field;
+    private final MethodHandle getter;
+
+    /**
+     * Creates an accessor for {@code field}.
+     *
+     * @param field the field which has to be accessible, e.g. by
+     *     {@link Field#setAccessible(boolean) }
+     * @throws IllegalArgumentException if {@code field} is {@code null} or
+     *     isn't accessible
+     */
+    public FieldAccessor(Field field) {
+        if(field == null) {
+            throw new IllegalArgumentException("field mustn't be null");
+        }
+        this.field = field;
+        MethodHandle fieldGetter;
+        try {
+            fieldGetter = MethodHandles.lookup().unreflectGetter(field);
+        }catch(IllegalAccessException ex) {
+            throw new IllegalArgumentException(String.format("field %s isn't accessible",
+                    field),
+                    ex);
+        }
+        if(Modifier.isStatic(field.getModifiers())) {
+            fieldGetter = MethodHandles.dropArguments(fieldGetter,
+                    0,
+                    Object.class);
+        }
+        this.getter = fieldGetter.asType(GETTER_TYPE);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * The getter of the field with the type {@code (Object)Object}.
+     *
+     * @return the getter
+     */
+    public MethodHandle getGetter() {
+        return getter;
+    }
+
+    /**
+     * Reads the value of the field of {@code instance}. Primitive values are
+     * boxed.
+     *
+     * @param instance the instance to read from (ignored for static fields)
+     * @return the value of the field
+     * @throws ClassCastException if {@code instance} isn't an instance of the
+     *     class declaring the field
+     * @throws NullPointerException if {@code instance} is {@code null} and the
+     *     field isn't static
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    public Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        }catch(RuntimeException | Error ex) {
+            throw ex;
+        }catch(Throwable ex) {
+            //a field getter doesn't throw checked exceptions
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAccessor{" + field + '}';
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+/**
+ * How {@link CachedFieldRetriever} references the classes it caches fields
+ * for.
+ *
+ * @author richter
+ */
+public enum FieldCacheMode {
+    /**
+     * Cached classes are referenced strongly and are never unloaded as long as
+     * the retriever is reachable. Suitable if the retriever and the cached
+     * classes share the same lifecycle.
+     */
+    STRONG,
+    /**
+     * Cached fields are attached to their class with a {@link ClassValue} so
+     * that neither the classes nor their class loader are pinned by the
+     * retriever, e.g. after redeployments of web applications whose classes
+     * are cached by a retriever of a shared library.
+     */
+    WEAK;
+}
@@ -0,0 +1,120 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a warm-up of {@link CachedFieldRetriever}.
+ *
+ * @author richter
+ */
+public final class FieldCacheWarmUpResult {
+    private final int classCount;
+    private final int failedClassCount;
+    private final long durationNanos;
+    private final List<String> unscannedLocations;
+
+    public FieldCacheWarmUpResult(int classCount,
+            int failedClassCount,
+            long durationNanos) {
+        this(classCount,
+                failedClassCount,
+                durationNanos,
+                Collections.emptyList());
+    }
+
+    /**
+     * Creates a new {@code FieldCacheWarmUpResult}.
+     *
+     * @param classCount the number of cached classes
+     * @param failedClassCount the number of classes which failed
+     * @param durationNanos the duration in nanoseconds
+     * @param unscannedLocations the locations of the classpath which couldn't
+     *     be scanned
+     * @throws IllegalArgumentException if {@code unscannedLocations} is
+     *     {@code null}
+     */
+    public FieldCacheWarmUpResult(int classCount,
+            int failedClassCount,
+            long durationNanos,
+            List<String> unscannedLocations) {
+        if(unscannedLocations == null) {
+            throw new IllegalArgumentException("unscannedLocations mustn't be null");
+        }
+        this.classCount = classCount;
+        this.failedClassCount = failedClassCount;
+        this.durationNanos = durationNanos;
+        this.unscannedLocations = Collections.unmodifiableList(new ArrayList<>(unscannedLocations));
+    }
+
+    /**
+     * The number of classes whose relevant fields have been cached.
+     *
+     * @return the class count
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * The number of classes found on the classpath which couldn't be loaded
+     * or whose relevant fields couldn't be computed, e.g. because of missing
+     * dependencies.
+     *
+     * @return the failed class count
+     */
+    public int getFailedClassCount() {
+        return failedClassCount;
+    }
+
+    /**
+     * The time the warm-up took including scanning the classpath.
+     *
+     * @param unit the unit to convert to
+     * @return the duration in {@code unit}
+     */
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(durationNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * The URLs of the locations of the classpath which couldn't be scanned,
+     * e.g. remote URLs or nested jar files, and whose classes haven't been
+     * cached.
+     *
+     * @return the unmodifiable list of unscanned locations
+     */
+    public List<String> getUnscannedLocations() {
+        return unscannedLocations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cached the relevant fields of %d classes in %d ms (%d classes failed, %d locations not scanned)",
+                classCount,
+                getDuration(TimeUnit.MILLISECONDS),
+                failedClassCount,
+                unscannedLocations.size());
+    }
+}
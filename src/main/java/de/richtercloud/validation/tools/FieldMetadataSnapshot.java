@@ -0,0 +1,355 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A memory-mapped snapshot of the relevant fields of classes which has been
+ * exported by {@link CachedFieldRetriever#exportSnapshot(java.nio.file.Path) }
+ * and allows to skip the computation of relevant fields after a restart.
+ *
+ * The file consists of a header and one entry per class containing the
+ * class name, a fingerprint of the fields declared by the class and the names
+ * of its relevant declared fields in order. Only an index of class names is
+ * read when the snapshot is opened, entries are turned into {@link Field}s on
+ * the first request of their class. Entries whose fingerprint doesn't match
+ * the loaded class, e.g. because the class has been changed since the export,
+ * are ignored and the fields are computed as if there was no snapshot.
+ *
+ * The fingerprint covers the names, raw types and modifiers of all declared
+ * fields and the name of the superclass. Changes of annotations or type
+ * arguments only, e.g. adding
+ * {@link de.richtercloud.validation.tools.annotations.Skip} to a field, aren't
+ * detected; snapshots should be exported again after deployments.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- the file format is: int magic, int version, int entry count, then per
+entry: string class name, long fingerprint, unsigned short field count and
+field count strings where strings are written as unsigned short byte length
+followed by the UTF-8 bytes
+- reads use absolute positions or duplicates of the mapped buffer because
+entries are resolved concurrently
+- the fingerprint uses raw types because Field.getGenericType parses the
+generic signature which is expensive and throws TypeNotPresentException if a
+type argument isn't on the classpath while Class.getDeclaredFields doesn't
+- resolving an entry calls Class.getDeclaredFields once for both the
+fingerprint and the lookup of the relevant fields by name which are written in
+declaration order, so that a snapshot hit is cheaper than computing the
+relevant fields which parses the annotations of every field
+*/
+public final class FieldMetadataSnapshot {
+    private static final int MAGIC = 0x56544653;
+    private static final int VERSION = 2;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /**
+     * The size of an entry with an empty class name and no fields, i.e. the
+     * length of the class name, the fingerprint and the field count.
+     */
+    private static final int MIN_ENTRY_SIZE = 2+8+2;
+    private final MappedByteBuffer buffer;
+    /**
+     * Maps class names to the position of the fingerprint of their entry.
+     */
+    private final Map<String, Integer> entryPositions;
+    private final LongAdder resolvedCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+
+    private FieldMetadataSnapshot(MappedByteBuffer buffer,
+            Map<String, Integer> entryPositions) {
+        this.buffer = buffer;
+        this.entryPositions = entryPositions;
+    }
+
+    /**
+     * Maps {@code file} into memory and reads the index of class names.
+     *
+     * @param file the file written by
+     *     {@link CachedFieldRetriever#exportSnapshot(java.nio.file.Path) }
+     * @return the opened snapshot
+     * @throws IOException if reading {@code file} fails or it isn't a
+     *     snapshot of a supported version
+     * @throws IllegalArgumentException if {@code file} is {@code null}
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public static FieldMetadataSnapshot open(Path file) throws IOException {
+        if(file == null) {
+            throw new IllegalArgumentException("file mustn't be null");
+        }
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            //the mapping stays valid after the channel has been closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0,
+                    channel.size());
+        }
+        if(buffer.remaining() < 12
+                || buffer.getInt(0) != MAGIC) {
+            throw new IOException(String.format("%s isn't a field metadata snapshot",
+                    file));
+        }
+        if(buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("version %d of snapshot %s isn't supported",
+                    buffer.getInt(4),
+                    file));
+        }
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(8);
+        int entryCount = reader.getInt();
+        Map<String, Integer> entryPositions;
+        try {
+            //checked before allocating the index in order to not fail with
+            //OutOfMemoryError for corrupt entry counts
+            if(entryCount < 0
+                    || entryCount > reader.remaining() / MIN_ENTRY_SIZE) {
+                throw new IOException(String.format("snapshot %s contains an invalid entry count %d",
+                        file,
+                        entryCount));
+            }
+            entryPositions = new HashMap<>(entryCount * 2);
+            for(int i=0; i<entryCount; i++) {
+                String className = readString(reader);
+                entryPositions.put(className,
+                        reader.position());
+                reader.getLong();
+                int fieldCount = Short.toUnsignedInt(reader.getShort());
+                for(int j=0; j<fieldCount; j++) {
+                    int length = Short.toUnsignedInt(reader.getShort());
+                    reader.position(reader.position()+length);
+                }
+            }
+        }catch(RuntimeException ex) {
+            //BufferUnderflowException or IllegalArgumentException of
+            //position
+            throw new IOException(String.format("snapshot %s is truncated",
+                    file),
+                    ex);
+        }
+        return new FieldMetadataSnapshot(buffer,
+                entryPositions);
+    }
+
+    /**
+     * Writes a snapshot of {@code declaredRelevantFields} to a temporary file
+     * next to {@code file} which then replaces {@code file} so that readers
+     * never see a partially written snapshot. Classes whose declared fields
+     * can't be inspected are skipped.
+     *
+     * @param file the file to write
+     * @param declaredRelevantFields the relevant fields declared by each class
+     * @return the number of written classes
+     * @throws IOException if writing fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    static int write(Path file,
+            Map<Class<?>, List<Field>> declaredRelevantFields) throws IOException {
+        //fingerprints are computed before writing in order to write the
+        //number of entries which are actually written into the header
+        Map<Class<?>, Long> fingerprints = new LinkedHashMap<>();
+        for(Class<?> clazz : declaredRelevantFields.keySet()) {
+            try {
+                fingerprints.put(clazz,
+                        computeFingerprint(clazz,
+                                clazz.getDeclaredFields()));
+            }catch(LinkageError | RuntimeException ex) {
+                //e.g. NoClassDefFoundError if the class has been cached
+                //through a class loader which can no longer resolve its
+                //dependencies; the class is computed after the import
+            }
+        }
+        Path absoluteFile = file.toAbsolutePath();
+        Path tempFile = Files.createTempFile(absoluteFile.getParent(),
+                absoluteFile.getFileName().toString(),
+                ".tmp");
+        boolean moved = false;
+        try {
+            try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(fingerprints.size());
+                for(Map.Entry<Class<?>, Long> entry : fingerprints.entrySet()) {
+                    List<Field> fields = declaredRelevantFields.get(entry.getKey());
+                    writeString(output,
+                            entry.getKey().getName());
+                    output.writeLong(entry.getValue());
+                    output.writeShort(fields.size());
+                    for(Field field : fields) {
+                        writeString(output,
+                                field.getName());
+                    }
+                }
+            }
+            try {
+                Files.move(tempFile,
+                        absoluteFile,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }catch(AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile,
+                        absoluteFile,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        }finally {
+            if(!moved) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        return fingerprints.size();
+    }
+
+    /**
+     * Resolves the relevant fields declared by {@code clazz} from the
+     * snapshot.
+     *
+     * @param clazz the class to resolve
+     * @return the fields or {@code null} if the snapshot doesn't contain
+     *     {@code clazz} or its entry is stale
+     */
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    List<Field> resolveDeclaredRelevantFields(Class<?> clazz) {
+        Integer entryPosition = entryPositions.get(clazz.getName());
+        if(entryPosition == null) {
+            return null;
+        }
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(entryPosition);
+        Field[] declaredFields = clazz.getDeclaredFields();
+        if(reader.getLong() != computeFingerprint(clazz,
+                declaredFields)) {
+            staleCount.increment();
+            return null;
+        }
+        int fieldCount = Short.toUnsignedInt(reader.getShort());
+        List<Field> retValue = new ArrayList<>(fieldCount);
+        int searchStart = 0;
+        for(int i=0; i<fieldCount; i++) {
+            int index = CachedFieldRetriever.indexOfField(declaredFields,
+                    readString(reader),
+                    searchStart);
+            if(index < 0) {
+                staleCount.increment();
+                return null;
+            }
+            Field field = declaredFields[index];
+            field.setAccessible(true);
+            retValue.add(field);
+            searchStart = index+1;
+        }
+        resolvedCount.increment();
+        return retValue;
+    }
+
+    /**
+     * The number of classes in the snapshot.
+     *
+     * @return the size
+     */
+    public int size() {
+        return entryPositions.size();
+    }
+
+    /**
+     * The number of requested classes whose fields have been resolved from
+     * the snapshot.
+     *
+     * @return the resolved count
+     */
+    public long getResolvedCount() {
+        return resolvedCount.sum();
+    }
+
+    /**
+     * The number of requested classes whose entry didn't match the loaded
+     * class and has been ignored.
+     *
+     * @return the stale count
+     */
+    public long getStaleCount() {
+        return staleCount.sum();
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the names, raw types and modifiers of
+     * {@code declaredFields} and the name of the superclass of
+     * {@code clazz}.
+     */
+    static long computeFingerprint(Class<?> clazz,
+            Field[] declaredFields) {
+        long hash = FNV_OFFSET_BASIS;
+        Class<?> superclass = clazz.getSuperclass();
+        hash = hash(hash,
+                superclass == null ? "" : superclass.getName());
+        for(Field field : declaredFields) {
+            hash = hash(hash,
+                    field.getName());
+            hash = hash(hash,
+                    field.getType().getName());
+            hash = (hash ^ field.getModifiers()) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash,
+            String value) {
+        long retValue = hash;
+        for(int i=0; i<value.length(); i++) {
+            retValue = (retValue ^ value.charAt(i)) * FNV_PRIME;
+        }
+        //separate consecutive values
+        return (retValue ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static void writeString(DataOutputStream output,
+            String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length > 0xFFFF) {
+            throw new IOException(String.format("name %s is too long",
+                    value));
+        }
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer reader) {
+        int length = Short.toUnsignedInt(reader.getShort());
+        byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes,
+                StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+
+/**
+ * Receives the names of the fields of a property path in the order of the
+ * path during path resolution.
+ *
+ * @author richter
+ */
+@FunctionalInterface
+public interface FieldNameConsumer {
+
+    /**
+     * Receives the next field name.
+     *
+     * @param fieldName the field name as returned by a {@link FieldNameLambda}
+     *     or the field's name if the lambda returned {@code null}
+     * @throws IOException if writing the field name to a target fails
+     */
+    void accept(String fieldName) throws IOException;
+}
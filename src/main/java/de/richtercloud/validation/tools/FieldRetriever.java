@@ -15,6 +15,7 @@
 package de.richtercloud.validation.tools;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 
 /*
@@ -53,4 +54,55 @@ public interface FieldRetriever {
      @Id annotated property first)
      */
     List<Field> retrieveRelevantFields(Class<?> clazz);
+
+    /**
+     * Retrieves the relevant field of {@code clazz} with the name
+     * {@code fieldName}. If more than one relevant field has the name, i.e. a
+     * field is shadowed by a field in a subclass, the first one in the list
+     * returned by {@link #retrieveRelevantFields(java.lang.Class) } is
+     * returned.
+     *
+     * The default implementation searches the list returned by
+     * {@link #retrieveRelevantFields(java.lang.Class) } linearly.
+     * Implementations are encouraged to override it with a lookup in a
+     * precomputed index.
+     *
+     * @param clazz the class to retrieve for
+     * @param fieldName the name of the field
+     * @return the relevant field or {@code null} if {@code clazz} doesn't have
+     *     a relevant field named {@code fieldName}
+     */
+    default Field retrieveRelevantField(Class<?> clazz,
+            String fieldName) {
+        for(Field relevantField : retrieveRelevantFields(clazz)) {
+            if(relevantField.getName().equals(fieldName)) {
+                return relevantField;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves accessors for the fields returned by
+     * {@link #retrieveRelevantFields(java.lang.Class) } in the same order which
+     * allow to read field values faster than
+     * {@link Field#get(java.lang.Object) }.
+     *
+     * The default implementation creates new accessors on every call.
+     * Implementations are encouraged to override it and cache the accessors
+     * since their creation is expensive compared to their use.
+     *
+     * @param clazz the class to retrieve for
+     * @return the list of accessors, never {@code null}
+     * @throws IllegalArgumentException if a relevant field isn't accessible
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    default List<FieldAccessor> retrieveRelevantFieldAccessors(Class<?> clazz) {
+        List<Field> relevantFields = retrieveRelevantFields(clazz);
+        List<FieldAccessor> retValue = new ArrayList<>(relevantFields.size());
+        for(Field relevantField : relevantFields) {
+            retValue.add(new FieldAccessor(relevantField));
+        }
+        return retValue;
+    }
 }
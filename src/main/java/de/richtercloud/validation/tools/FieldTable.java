@@ -0,0 +1,72 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+/**
+ * The relevant fields declared by a class as determined at compile time by
+ * {@link de.richtercloud.validation.tools.processor.FieldTableProcessor}.
+ * Implementations are generated and shouldn't be written manually. The fields
+ * of superclasses are retrieved from the tables of the superclasses or with
+ * reflection.
+ *
+ * @author richter
+ */
+public interface FieldTable {
+    /**
+     * The suffix appended to the binary name of the class (with {@code $}
+     * replaced by {@code _}) in order to get the name of the generated table.
+     */
+    String CLASS_NAME_SUFFIX = "_FieldTable";
+    /**
+     * The name of the resource listing the binary names of the classes for
+     * which tables have been generated, one per line. Every compilation unit
+     * processed by
+     * {@link de.richtercloud.validation.tools.processor.FieldTableProcessor}
+     * writes such a resource, so that all resources with this name are read.
+     */
+    String INDEX_RESOURCE_NAME = "META-INF/validation-tools/field-tables";
+
+    /**
+     * The names of the relevant fields declared by the class in declaration
+     * order.
+     *
+     * @return the field names
+     */
+    String[] getFieldNames();
+
+    /**
+     * The number of non-{@code static} and non-{@code transient} fields
+     * declared by the class including the ones annotated with
+     * {@link de.richtercloud.validation.tools.annotations.Skip} which allows to
+     * detect fields which have been added after the table has been generated.
+     *
+     * @return the declared field count
+     */
+    int getDeclaredFieldCount();
+
+    /**
+     * Determines the binary name of the table generated for the class with the
+     * binary name {@code className}.
+     *
+     * @param className the binary name of the class
+     * @return the binary name of the generated table
+     */
+    static String getTableClassName(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        return className.substring(0, packageEnd+1)
+                + className.substring(packageEnd+1).replace('$', '_')
+                + CLASS_NAME_SUFFIX;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import com.google.common.reflect.TypeToken;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves the type of a field and the type of its elements in the context of
+ * the class the field is accessed through, e.g. {@code String} for a field
+ * {@code List<T> items} declared in {@code Base<T>} and accessed through
+ * {@code Sub extends Base<String>}. Results are cached per class and field.
+ *
+ * Element types are the type argument of {@link Iterable}s, the value type of
+ * {@link Map}s and the component type of arrays. Wildcards and type variables
+ * which can't be resolved are replaced with their upper bound and raw types
+ * with {@link Object}.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- the cache is a ClassValue in order to not prevent classes from being
+unloaded
+*/
+final class FieldTypeResolver {
+    private static final ClassValue<ConcurrentMap<Field, ResolvedFieldType>> CACHE = new ClassValue<ConcurrentMap<Field, ResolvedFieldType>>() {
+        @Override
+        protected ConcurrentMap<Field, ResolvedFieldType> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Resolves the raw type of {@code field} accessed through
+     * {@code ownerClass}.
+     *
+     * @param ownerClass the class the field is accessed through
+     * @param field the field
+     * @return the raw type
+     */
+    static Class<?> resolveFieldType(Class<?> ownerClass,
+            Field field) {
+        return retrieveResolvedFieldType(ownerClass,
+                field).fieldType;
+    }
+
+    /**
+     * Resolves the raw type of the elements of {@code field} accessed through
+     * {@code ownerClass}.
+     *
+     * @param ownerClass the class the field is accessed through
+     * @param field the field
+     * @return the raw element type or the raw type of {@code field} if it's
+     *     neither an {@link Iterable}, a {@link Map} nor an array
+     */
+    static Class<?> resolveElementType(Class<?> ownerClass,
+            Field field) {
+        return retrieveResolvedFieldType(ownerClass,
+                field).elementType;
+    }
+
+    private static ResolvedFieldType retrieveResolvedFieldType(Class<?> ownerClass,
+            Field field) {
+        ConcurrentMap<Field, ResolvedFieldType> ownerCache = CACHE.get(ownerClass);
+        ResolvedFieldType retValue = ownerCache.get(field);
+        if(retValue == null) {
+            retValue = resolve(ownerClass,
+                    field);
+            ownerCache.putIfAbsent(field,
+                    retValue);
+        }
+        return retValue;
+    }
+
+    private static ResolvedFieldType resolve(Class<?> ownerClass,
+            Field field) {
+        TypeToken<?> fieldType = TypeToken.of(ownerClass).resolveType(field.getGenericType());
+        TypeToken<?> elementType;
+        if(fieldType.isArray()) {
+            elementType = fieldType.getComponentType();
+        }else if(Map.class.isAssignableFrom(fieldType.getRawType())) {
+            elementType = fieldType.resolveType(Map.class.getTypeParameters()[1]);
+        }else if(Iterable.class.isAssignableFrom(fieldType.getRawType())) {
+            elementType = fieldType.resolveType(Iterable.class.getTypeParameters()[0]);
+        }else {
+            elementType = fieldType;
+        }
+        return new ResolvedFieldType(fieldType.getRawType(),
+                elementType.getRawType());
+    }
+
+    private static final class ResolvedFieldType {
+        private final Class<?> fieldType;
+        private final Class<?> elementType;
+
+        ResolvedFieldType(Class<?> fieldType,
+                Class<?> elementType) {
+            this.fieldType = fieldType;
+            this.elementType = elementType;
+        }
+    }
+
+    private FieldTypeResolver() {
+    }
+}
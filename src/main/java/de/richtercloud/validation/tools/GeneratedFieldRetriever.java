@@ -0,0 +1,195 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link CachedFieldRetriever} which serves the relevant fields of classes
+ * annotated with
+ * {@link de.richtercloud.validation.tools.annotations.GenerateFieldTable} from
+ * the {@link FieldTable}s generated at compile time. This avoids parsing
+ * annotations of every field at runtime. The relevant fields of classes
+ * without a generated table and of classes whose table doesn't match the
+ * loaded class, e.g. because fields have been added or removed without
+ * regenerating the table, are retrieved with reflection.
+ *
+ * Tables are only loaded for classes listed in a
+ * {@link FieldTable#INDEX_RESOURCE_NAME} resource of the class loader of the
+ * class, so that classes without table don't require a failing class lookup.
+ * The resources are read once per class loader.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- class loaders are referenced weakly in order to not prevent unloading of
+applications
+*/
+public class GeneratedFieldRetriever extends CachedFieldRetriever {
+    private final LoadingCache<ClassLoader, Set<String>> indexedClassNames = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<ClassLoader, Set<String>>() {
+                @Override
+                public Set<String> load(ClassLoader classLoader) {
+                    return readIndex(classLoader);
+                }
+            });
+
+    public GeneratedFieldRetriever() {
+        super();
+    }
+
+    public GeneratedFieldRetriever(FieldCacheMode cacheMode,
+            long maximumSize) {
+        super(cacheMode,
+                maximumSize);
+    }
+
+    @Override
+    protected List<Field> computeDeclaredRelevantFields(Class<?> clazz) {
+        FieldTable fieldTable = loadFieldTable(clazz);
+        if(fieldTable != null) {
+            List<Field> retValue = retrieveDeclaredTableFields(clazz,
+                    fieldTable);
+            if(retValue != null) {
+                return retValue;
+            }
+        }
+        return super.computeDeclaredRelevantFields(clazz);
+    }
+
+    /**
+     * Loads and instantiates the generated table for {@code clazz}.
+     *
+     * @param clazz the class to load the table for
+     * @return the table or {@code null} if there's no table for {@code clazz}
+     */
+    protected FieldTable loadFieldTable(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if(classLoader == null) {
+            //bootstrap classes don't have generated tables
+            return null;
+        }
+        if(!indexedClassNames.getUnchecked(classLoader).contains(clazz.getName())) {
+            return null;
+        }
+        try {
+            Class<?> fieldTableClass = Class.forName(FieldTable.getTableClassName(clazz.getName()),
+                    true,
+                    classLoader);
+            if(!FieldTable.class.isAssignableFrom(fieldTableClass)) {
+                return null;
+            }
+            return (FieldTable) fieldTableClass.getDeclaredConstructor().newInstance();
+        }catch(ClassNotFoundException
+                | NoSuchMethodException
+                | InstantiationException
+                | IllegalAccessException
+                | InvocationTargetException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the names of the classes with generated tables from all
+     * {@link FieldTable#INDEX_RESOURCE_NAME} resources of
+     * {@code classLoader}. Resources which can't be read are ignored, so that
+     * the classes listed in them are retrieved with reflection.
+     */
+    private static Set<String> readIndex(ClassLoader classLoader) {
+        Set<String> retValue = new HashSet<>();
+        Enumeration<URL> indexResources;
+        try {
+            indexResources = classLoader.getResources(FieldTable.INDEX_RESOURCE_NAME);
+        }catch(IOException ex) {
+            return Collections.emptySet();
+        }
+        while(indexResources.hasMoreElements()) {
+            URL indexResource = indexResources.nextElement();
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(indexResource.openStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    if(!line.isEmpty()) {
+                        retValue.add(line);
+                    }
+                }
+            }catch(IOException ex) {
+                //the classes of the resource are retrieved with reflection
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Resolves the fields listed in {@code fieldTable} from the fields
+     * declared by {@code clazz}. The fields of superclasses are taken from
+     * their cache entries and, if they have a table as well, from their own
+     * tables.
+     *
+     * @return the fields or {@code null} if the table doesn't match
+     *     {@code clazz}, e.g. because {@code clazz} has been changed without
+     *     regenerating the table
+     */
+    private static List<Field> retrieveDeclaredTableFields(Class<?> clazz,
+            FieldTable fieldTable) {
+        Field[] declaredFields = clazz.getDeclaredFields();
+        int declaredFieldCount = 0;
+        for(Field declaredField : declaredFields) {
+            //synthetic fields aren't visible at compile time
+            if(!Modifier.isStatic(declaredField.getModifiers())
+                    && !Modifier.isTransient(declaredField.getModifiers())
+                    && !declaredField.isSynthetic()) {
+                declaredFieldCount += 1;
+            }
+        }
+        if(declaredFieldCount != fieldTable.getDeclaredFieldCount()) {
+            return null;
+        }
+        String[] fieldNames = fieldTable.getFieldNames();
+        List<Field> retValue = new ArrayList<>(fieldNames.length);
+        int searchStart = 0;
+        for(String fieldName : fieldNames) {
+            int index = indexOfField(declaredFields,
+                    fieldName,
+                    searchStart);
+            if(index < 0) {
+                return null;
+            }
+            Field field = declaredFields[index];
+            field.setAccessible(true);
+            retValue.add(field);
+            searchStart = index+1;
+        }
+        return retValue;
+    }
+}
@@ -0,0 +1,415 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.validation.ConstraintViolation;
+import javax.validation.GroupSequence;
+import javax.validation.Validator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+/**
+ * Validates an instance which is edited repeatedly, e.g. the bean of a form,
+ * by validating only the properties which changed since the last validation.
+ *
+ * Every call to {@link #validate(java.lang.Object) } takes a snapshot of the
+ * values of the relevant fields of the instance and of the beans reachable
+ * through cascaded ({@link javax.validation.Valid}) fields and
+ * {@link List}s. Properties whose value changed are validated with
+ * {@link Validator#validateProperty(java.lang.Object, java.lang.String, java.lang.Class...) }
+ * and the result is merged with the violations of the previous validation of
+ * the other properties. The returned set can be passed to
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }.
+ *
+ * The whole instance is validated if
+ * <ul>
+ * <li>a different instance than in the last call is passed,</li>
+ * <li>a cascaded reference or the size of a cascaded list changed,</li>
+ * <li>a property of a bean with class-level constraints changed since
+ * class-level constraints can depend on every property,</li>
+ * <li>the graph contains cascaded containers other than lists, cycles or
+ * constrained properties which aren't relevant fields of the field retriever,
+ * e.g. because they're skipped,</li>
+ * <li>{@code groups} contains a group sequence or a class of the graph
+ * redefines its default group with {@link GroupSequence} or Hibernate
+ * Validator's {@code @GroupSequenceProvider} since
+ * {@link Validator#validateProperty(java.lang.Object, java.lang.String, java.lang.Class...) }
+ * applies sequences to each property separately and would report violations
+ * of later groups which the validation of the whole instance suppresses.</li>
+ * </ul>
+ *
+ * Values of {@link String}s, primitive wrappers, enums and other immutable
+ * types are compared with {@link Object#equals(java.lang.Object) }. Properties
+ * with other values are validated in every call since modifications of the
+ * value itself can't be detected by a snapshot.
+ *
+ * Instances aren't thread-safe.
+ *
+ * @param <T> the type of the validated instance
+ * @author richter
+ */
+public class IncrementalValidator<T> {
+    private final Validator validator;
+    private final FieldRetriever fieldRetriever;
+    private final Class<?>[] groups;
+    /**
+     * Whether {@code groups} contains a group sequence.
+     */
+    private final boolean groupSequence;
+    private final Map<Class<?>, ClassInfo> classInfos = new HashMap<>();
+    private T instance;
+    private Map<String, SnapshotEntry> snapshot;
+    private Set<ConstraintViolation<T>> violations;
+    private long fullValidationCount;
+    private long propertyValidationCount;
+
+    /**
+     * Creates a new {@code IncrementalValidator}.
+     *
+     * @param validator the validator to delegate to
+     * @param fieldRetriever the retriever which provides the fields to take
+     *     snapshots of
+     * @param groups the validation groups to validate
+     * @throws IllegalArgumentException if {@code validator},
+     *     {@code fieldRetriever} or {@code groups} is {@code null}
+     */
+    public IncrementalValidator(Validator validator,
+            FieldRetriever fieldRetriever,
+            Class<?>... groups) {
+        if(validator == null) {
+            throw new IllegalArgumentException("validator mustn't be null");
+        }
+        if(fieldRetriever == null) {
+            throw new IllegalArgumentException("fieldRetriever mustn't be null");
+        }
+        if(groups == null) {
+            throw new IllegalArgumentException("groups mustn't be null");
+        }
+        this.validator = validator;
+        this.fieldRetriever = fieldRetriever;
+        this.groups = groups.clone();
+        boolean groupSequence0 = false;
+        for(Class<?> group : groups) {
+            if(group.isAnnotationPresent(GroupSequence.class)) {
+                groupSequence0 = true;
+                break;
+            }
+        }
+        this.groupSequence = groupSequence0;
+    }
+
+    /**
+     * Validates {@code instance} by validating the properties which changed
+     * since the last call with the same instance.
+     *
+     * @param instance the instance to validate
+     * @return the unmodifiable set of all violations of {@code instance}
+     * @throws IllegalArgumentException if {@code instance} is {@code null}
+     */
+    public Set<ConstraintViolation<T>> validate(T instance) {
+        if(instance == null) {
+            throw new IllegalArgumentException("instance mustn't be null");
+        }
+        Map<String, SnapshotEntry> newSnapshot = takeSnapshot(instance);
+        if(instance != this.instance
+                || groupSequence
+                || this.snapshot == null
+                || newSnapshot == null
+                || !newSnapshot.keySet().equals(this.snapshot.keySet())) {
+            return validateFully(instance,
+                    newSnapshot);
+        }
+        Set<String> changedPaths = new HashSet<>();
+        for(Map.Entry<String, SnapshotEntry> newEntry : newSnapshot.entrySet()) {
+            SnapshotEntry newValue = newEntry.getValue();
+            SnapshotEntry oldValue = this.snapshot.get(newEntry.getKey());
+            if(newValue.cascaded) {
+                if(newValue.value != oldValue.value) {
+                    return validateFully(instance,
+                            newSnapshot);
+                }
+                continue;
+            }
+            if(!newValue.comparable
+                    || !Objects.equals(newValue.value, oldValue.value)) {
+                if(newValue.ownerHasClassConstraints) {
+                    return validateFully(instance,
+                            newSnapshot);
+                }
+                changedPaths.add(newEntry.getKey());
+            }
+        }
+        this.snapshot = newSnapshot;
+        if(changedPaths.isEmpty()) {
+            return this.violations;
+        }
+        Set<ConstraintViolation<T>> newViolations = new HashSet<>();
+        for(ConstraintViolation<T> violation : this.violations) {
+            if(!changedPaths.contains(violation.getPropertyPath().toString())) {
+                newViolations.add(violation);
+            }
+        }
+        for(String changedPath : changedPaths) {
+            newViolations.addAll(validator.validateProperty(instance,
+                    changedPath,
+                    groups));
+            propertyValidationCount++;
+        }
+        this.violations = Collections.unmodifiableSet(newViolations);
+        return this.violations;
+    }
+
+    /**
+     * Forgets the last validation so that the next call to
+     * {@link #validate(java.lang.Object) } validates the whole instance, e.g.
+     * after cascaded containers have been modified in place.
+     */
+    public void reset() {
+        this.instance = null;
+        this.snapshot = null;
+        this.violations = null;
+    }
+
+    /**
+     * The number of validations of whole instances.
+     *
+     * @return the full validation count
+     */
+    public long getFullValidationCount() {
+        return fullValidationCount;
+    }
+
+    /**
+     * The number of validations of single properties.
+     *
+     * @return the property validation count
+     */
+    public long getPropertyValidationCount() {
+        return propertyValidationCount;
+    }
+
+    private Set<ConstraintViolation<T>> validateFully(T instance,
+            Map<String, SnapshotEntry> newSnapshot) {
+        this.violations = Collections.unmodifiableSet(validator.validate(instance,
+                groups));
+        fullValidationCount++;
+        this.instance = instance;
+        this.snapshot = newSnapshot;
+        return this.violations;
+    }
+
+    /**
+     * Takes a snapshot of the graph of {@code instance}.
+     *
+     * @return the snapshot mapping property paths to values or {@code null} if
+     *     the graph isn't supported
+     */
+    private Map<String, SnapshotEntry> takeSnapshot(Object instance) {
+        Map<String, SnapshotEntry> retValue = new LinkedHashMap<>();
+        Map<Object, Boolean> visited = new IdentityHashMap<>();
+        if(!takeSnapshot(instance,
+                "",
+                retValue,
+                visited)) {
+            return null;
+        }
+        return retValue;
+    }
+
+    private boolean takeSnapshot(Object bean,
+            String pathPrefix,
+            Map<String, SnapshotEntry> target,
+            Map<Object, Boolean> visited) {
+        if(visited.put(bean, Boolean.TRUE) != null) {
+            //cycle
+            return false;
+        }
+        ClassInfo classInfo = retrieveClassInfo(bean.getClass());
+        if(!classInfo.supported) {
+            return false;
+        }
+        for(int i=0; i<classInfo.accessors.size(); i++) {
+            FieldAccessor accessor = classInfo.accessors.get(i);
+            String path = pathPrefix + accessor.getField().getName();
+            Object value = accessor.get(bean);
+            if(!classInfo.cascaded[i]) {
+                target.put(path,
+                        new SnapshotEntry(value,
+                                false, //cascaded
+                                isImmutable(value),
+                                classInfo.hasClassConstraints));
+                continue;
+            }
+            target.put(path,
+                    new SnapshotEntry(value,
+                            true, //cascaded
+                            false, //comparable
+                            classInfo.hasClassConstraints));
+            if(value == null) {
+                continue;
+            }
+            if(value instanceof List) {
+                int index = 0;
+                for(Object element : (List<?>)value) {
+                    String elementPath = path + "[" + index + "]";
+                    target.put(elementPath,
+                            new SnapshotEntry(element,
+                                    true, //cascaded
+                                    false, //comparable
+                                    classInfo.hasClassConstraints));
+                    if(element != null
+                            && !takeSnapshot(element,
+                                    elementPath + ".",
+                                    target,
+                                    visited)) {
+                        return false;
+                    }
+                    index++;
+                }
+            }else if(value instanceof Iterable
+                    || value instanceof Map
+                    || value.getClass().isArray()) {
+                return false;
+            }else if(!takeSnapshot(value,
+                    path + ".",
+                    target,
+                    visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ClassInfo retrieveClassInfo(Class<?> clazz) {
+        ClassInfo retValue = classInfos.get(clazz);
+        if(retValue == null) {
+            retValue = new ClassInfo(clazz,
+                    validator.getConstraintsForClass(clazz),
+                    fieldRetriever.retrieveRelevantFieldAccessors(clazz));
+            classInfos.put(clazz,
+                    retValue);
+        }
+        return retValue;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Byte
+                || value instanceof Short
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Float
+                || value instanceof Double
+                || value instanceof BigInteger && value.getClass() == BigInteger.class
+                || value instanceof BigDecimal && value.getClass() == BigDecimal.class
+                || value instanceof Enum
+                || value instanceof Class
+                || value.getClass().getName().startsWith("java.time.");
+    }
+
+    /**
+     * The information about a class needed to take snapshots.
+     */
+    private static final class ClassInfo {
+        private static final String GROUP_SEQUENCE_PROVIDER_NAME = "org.hibernate.validator.group.GroupSequenceProvider";
+        private final List<FieldAccessor> accessors;
+        private final boolean[] cascaded;
+        private final boolean hasClassConstraints;
+        /**
+         * {@code false} if a constrained property isn't a relevant field or
+         * the class redefines its default group.
+         */
+        private final boolean supported;
+
+        ClassInfo(Class<?> clazz,
+                BeanDescriptor beanDescriptor,
+                List<FieldAccessor> accessors) {
+            this.accessors = accessors;
+            this.cascaded = new boolean[accessors.size()];
+            Set<String> fieldNames = new HashSet<>();
+            for(int i=0; i<accessors.size(); i++) {
+                Field field = accessors.get(i).getField();
+                fieldNames.add(field.getName());
+                PropertyDescriptor propertyDescriptor = beanDescriptor.getConstraintsForProperty(field.getName());
+                this.cascaded[i] = propertyDescriptor != null
+                        && propertyDescriptor.isCascaded();
+            }
+            this.hasClassConstraints = !beanDescriptor.getConstraintDescriptors().isEmpty();
+            //shadowed fields can't be addressed by property paths
+            boolean supported0 = fieldNames.size() == accessors.size()
+                    && !redefinesDefaultGroup(clazz);
+            Iterator<PropertyDescriptor> constrainedPropertyIt = beanDescriptor.getConstrainedProperties().iterator();
+            while(supported0 && constrainedPropertyIt.hasNext()) {
+                supported0 = fieldNames.contains(constrainedPropertyIt.next().getPropertyName());
+            }
+            this.supported = supported0;
+        }
+
+        /**
+         * Checks whether {@code clazz} or one of its superclasses redefines
+         * the default group. The Hibernate Validator annotation is checked by
+         * name in order to not depend on the provider.
+         */
+        private static boolean redefinesDefaultGroup(Class<?> clazz) {
+            Class<?> hierarchyClass = clazz;
+            while(hierarchyClass != null) {
+                if(hierarchyClass.isAnnotationPresent(GroupSequence.class)) {
+                    return true;
+                }
+                for(Annotation annotation : hierarchyClass.getDeclaredAnnotations()) {
+                    if(GROUP_SEQUENCE_PROVIDER_NAME.equals(annotation.annotationType().getName())) {
+                        return true;
+                    }
+                }
+                hierarchyClass = hierarchyClass.getSuperclass();
+            }
+            return false;
+        }
+    }
+
+    private static final class SnapshotEntry {
+        private final Object value;
+        private final boolean cascaded;
+        private final boolean comparable;
+        private final boolean ownerHasClassConstraints;
+
+        SnapshotEntry(Object value,
+                boolean cascaded,
+                boolean comparable,
+                boolean ownerHasClassConstraints) {
+            this.value = value;
+            this.cascaded = cascaded;
+            this.comparable = comparable;
+            this.ownerHasClassConstraints = ownerHasClassConstraints;
+        }
+    }
+}
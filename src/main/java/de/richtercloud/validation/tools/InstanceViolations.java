@@ -0,0 +1,59 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.util.Set;
+import javax.validation.ConstraintViolation;
+
+/**
+ * An instance and the constraint violations detected during its validation
+ * which are passed to
+ * {@link ValidationTools#buildConstraintVioloationMessages(java.util.List, de.richtercloud.validation.tools.PathDescriptionCache, java.util.Map, boolean, de.richtercloud.validation.tools.OutputMode) }.
+ *
+ * @author richter
+ * @param <T> the type of the validated instance
+ */
+public final class InstanceViolations<T> {
+    private final Object instance;
+    private final Set<ConstraintViolation<T>> violations;
+
+    /**
+     * Creates a new {@code InstanceViolations}.
+     *
+     * @param instance the instance which causes the constaint violation(s)
+     * @param violations the detected constraint violations
+     * @throws IllegalArgumentException if {@code violations} is {@code null}
+     *     or empty
+     */
+    public InstanceViolations(Object instance,
+            Set<ConstraintViolation<T>> violations) {
+        if(violations == null) {
+            throw new IllegalArgumentException("violations mustn't be null");
+        }
+        if(violations.isEmpty()) {
+            throw new IllegalArgumentException("violations mustn't be empty");
+        }
+        this.instance = instance;
+        this.violations = violations;
+    }
+
+    public Object getInstance() {
+        return instance;
+    }
+
+    public Set<ConstraintViolation<T>> getViolations() {
+        return violations;
+    }
+}
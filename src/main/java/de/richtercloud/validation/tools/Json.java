@@ -0,0 +1,137 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.Path.Node;
+
+/**
+ * Writes JSON values directly to an {@link Appendable} without intermediate
+ * strings for {@link OutputMode#JSON}.
+ *
+ * @author richter
+ */
+final class Json {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Writes {@code value} as JSON string including the surrounding quotes and
+     * escapes all characters which need to be escaped according to RFC 8259.
+     *
+     * @param target the target to write to
+     * @param value the value to write or {@code null} in order to write
+     *     {@code null}
+     * @throws IOException if writing to {@code target} fails
+     */
+    static void appendString(Appendable target,
+            CharSequence value) throws IOException {
+        if(value == null) {
+            target.append("null");
+            return;
+        }
+        target.append('"');
+        appendEscaped(target,
+                value);
+        target.append('"');
+    }
+
+    private static void appendEscaped(Appendable target,
+            CharSequence value) throws IOException {
+        int unescapedStart = 0;
+        int length = value.length();
+        for(int i = 0; i < length; i++) {
+            char character = value.charAt(i);
+            if(character >= 0x20 && character != '"' && character != '\\') {
+                continue;
+            }
+            target.append(value, unescapedStart, i);
+            unescapedStart = i+1;
+            switch(character) {
+                case '"':
+                    target.append("\\\"");
+                    break;
+                case '\\':
+                    target.append("\\\\");
+                    break;
+                case '\n':
+                    target.append("\\n");
+                    break;
+                case '\r':
+                    target.append("\\r");
+                    break;
+                case '\t':
+                    target.append("\\t");
+                    break;
+                case '\b':
+                    target.append("\\b");
+                    break;
+                case '\f':
+                    target.append("\\f");
+                    break;
+                default:
+                    target.append("\\u00")
+                            .append(HEX_DIGITS[character >> 4])
+                            .append(HEX_DIGITS[character & 0xF]);
+            }
+        }
+        target.append(value, unescapedStart, length);
+    }
+
+    /**
+     * Writes {@code path} as JSON string in the notation of the Bean
+     * Validation reference implementation, e.g.
+     * {@code "bean1.bean2s[0].property0"}.
+     *
+     * @param target the target to write to
+     * @param path the path to write
+     * @param withIndices whether to write indices and keys of iterable nodes
+     *     or empty brackets, e.g. {@code "bean1.bean2s[].property0"}
+     * @throws IOException if writing to {@code target} fails
+     */
+    static void appendPath(Appendable target,
+            Path path,
+            boolean withIndices) throws IOException {
+        target.append('"');
+        boolean first = true;
+        for(Node node : path) {
+            if(node.isInIterable()) {
+                target.append('[');
+                if(withIndices) {
+                    if(node.getIndex() != null) {
+                        target.append(node.getIndex().toString());
+                    }else if(node.getKey() != null) {
+                        appendEscaped(target,
+                                node.getKey().toString());
+                    }
+                }
+                target.append(']');
+            }
+            if(node.getKind() == ElementKind.PROPERTY) {
+                if(!first) {
+                    target.append('.');
+                }
+                appendEscaped(target,
+                        node.getName());
+                first = false;
+            }
+        }
+        target.append('"');
+    }
+
+    private Json() {
+    }
+}
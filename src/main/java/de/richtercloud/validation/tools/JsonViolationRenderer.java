@@ -0,0 +1,96 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+
+/**
+ * The renderer of {@link OutputMode#JSON}. Field names are written to the
+ * target during path resolution.
+ *
+ * @author richter
+ */
+final class JsonViolationRenderer implements ViolationRenderer {
+    static final JsonViolationRenderer INSTANCE = new JsonViolationRenderer();
+
+    @Override
+    public void appendHeader(Appendable target) throws IOException {
+        target.append("{\"violations\":[");
+    }
+
+    @Override
+    public void appendViolation(Appendable target,
+            RenderedViolation violation) throws IOException {
+        target.append("{\"path\":");
+        //aggregated violations are written with their path without indices
+        //and keys
+        Json.appendPath(target,
+                violation.getViolation().getPropertyPath(),
+                !violation.isAggregated());
+        if(!violation.isSkipPathes()) {
+            String pathString = violation.getProvidedPathDescription();
+            if(pathString == null) {
+                target.append(",\"displayNames\":[");
+                boolean[] firstFieldName = new boolean[] {true};
+                violation.resolveFieldNames(fieldName -> {
+                    if(!firstFieldName[0]) {
+                        target.append(',');
+                    }
+                    Json.appendString(target,
+                            fieldName);
+                    firstFieldName[0] = false;
+                });
+                target.append(']');
+            }else {
+                target.append(",\"description\":");
+                Json.appendString(target,
+                        pathString);
+            }
+        }
+        target.append(",\"message\":");
+        Json.appendString(target,
+                violation.getViolation().getMessage());
+        target.append(",\"invalidValueType\":");
+        Object invalidValue = violation.getViolation().getInvalidValue();
+        Json.appendString(target,
+                invalidValue == null
+                        ? null
+                        : invalidValue.getClass().getName());
+        if(violation.isAggregated()) {
+            target.append(",\"count\":")
+                    .append(Integer.toString(violation.getCount()));
+        }
+        target.append('}');
+    }
+
+    @Override
+    public void appendSeparator(Appendable target) throws IOException {
+        target.append(',');
+    }
+
+    @Override
+    public void appendFooter(Appendable target,
+            int omittedViolationCount) throws IOException {
+        target.append(']');
+        if(omittedViolationCount > 0) {
+            target.append(",\"omitted\":")
+                    .append(Integer.toString(omittedViolationCount));
+        }
+        target.append('}');
+    }
+
+    private JsonViolationRenderer() {
+    }
+}
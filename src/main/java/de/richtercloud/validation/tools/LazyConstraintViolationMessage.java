@@ -0,0 +1,97 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.util.function.Supplier;
+
+/**
+ * A constraint violation message which is built when it's read for the first
+ * time, e.g. by {@link #toString() } or {@link #charAt(int) }, and then kept.
+ * Created by the {@code buildLazyConstraintVioloationMessage} methods of
+ * {@link ValidationTools}.
+ *
+ * The message is built at most once even if it's read by multiple threads
+ * concurrently. If building fails with an exception, the exception is thrown
+ * to the reader and the next read tries again.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- double-checked locking on the volatile message field keeps reads after
+building lock-free
+- the renderer is released after building so that the captured violations and
+instance can be garbage collected
+*/
+public final class LazyConstraintViolationMessage implements CharSequence, Supplier<String> {
+    /**
+     * Builds the message. Guarded by {@code this}, {@code null} after the
+     * message has been built.
+     */
+    private Supplier<String> renderer;
+    private volatile String message;
+
+    LazyConstraintViolationMessage(Supplier<String> renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Whether the message has been built already.
+     *
+     * @return {@code true} if the message has been built, {@code false}
+     *     otherwise
+     */
+    public boolean isRendered() {
+        return message != null;
+    }
+
+    @Override
+    public String get() {
+        String retValue = message;
+        if(retValue == null) {
+            synchronized(this) {
+                retValue = message;
+                if(retValue == null) {
+                    retValue = renderer.get();
+                    message = retValue;
+                    renderer = null;
+                }
+            }
+        }
+        return retValue;
+    }
+
+    @Override
+    public int length() {
+        return get().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return get().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start,
+            int end) {
+        return get().subSequence(start,
+                end);
+    }
+
+    @Override
+    public String toString() {
+        return get();
+    }
+}
@@ -22,13 +22,58 @@ public enum OutputMode {
     /**
      * Plain text output.
      */
-    PLAIN_TEXT,
+    PLAIN_TEXT(new TemplateViolationRenderer("The following constraints are violated:\n", //header
+            "{path}{message}{count}\n", //violationTemplate
+            "", //separator
+            "...and {omitted} more\n", //omittedTemplate
+            "Fix the corresponding values in the components." //footer
+    )),
     /**
      * HTML output wrapped in a {@code html} element.
      */
-    HTML_HTML,
+    HTML_HTML(new TemplateViolationRenderer("<html>The following constraints are violated:<br/>", //header
+            "{path}{message}{count}<br/>", //violationTemplate
+            "", //separator
+            "...and {omitted} more<br/>", //omittedTemplate
+            "Fix the corresponding values in the components.</html>" //footer
+    )),
     /**
      * HTML output wrapped in a {@code div} element.
      */
-    HTML_DIV;
+    HTML_DIV(new TemplateViolationRenderer("<div>The following constraints are violated:<br/>", //header
+            "{path}{message}{count}<br/>", //violationTemplate
+            "", //separator
+            "...and {omitted} more<br/>", //omittedTemplate
+            "Fix the corresponding values in the components.</div>" //footer
+    )),
+    /**
+     * A JSON object with a {@code violations} array containing one object per
+     * violation with the members {@code path} (the property path, e.g.
+     * {@code "bean1.bean2s[0].property0"}), {@code displayNames} (the field
+     * names of the path as provided by the field name lambda, omitted if
+     * pathes are skipped or a description is provided in the path description
+     * map), {@code description} (the description from the path description map
+     * if present), {@code message} and {@code invalidValueType} (the fully
+     * qualified class name of the invalid value or {@code null}). Aggregated
+     * violations are written with their path without indices and keys, e.g.
+     * {@code "bean1.bean2s[].property0"}, and their number as {@code count}.
+     * The number of violations omitted because of limits is written as
+     * {@code omitted} member of the object.
+     */
+    JSON(JsonViolationRenderer.INSTANCE);
+
+    private final ViolationRenderer renderer;
+
+    OutputMode(ViolationRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * The built-in renderer of this output mode.
+     *
+     * @return the renderer
+     */
+    public ViolationRenderer getRenderer() {
+        return renderer;
+    }
 }
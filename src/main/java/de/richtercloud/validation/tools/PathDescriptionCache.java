@@ -0,0 +1,256 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.Path.Node;
+
+/**
+ * A bounded cache of path descriptions which are built in
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, java.util.Map, boolean, de.richtercloud.validation.tools.OutputMode) }.
+ *
+ * The description of a path only depends on the class of the validated
+ * instance and the names of the path's nodes, but not on indices or keys of
+ * nodes inside iterables. Cached descriptions are therefore shared between all
+ * violations whose paths only differ in indices and keys, so that recurring
+ * paths are described without reflection.
+ *
+ * Since the description depends on the field retriever and field name lambda
+ * both are specified at creation and can't be changed. Instances are
+ * thread-safe.
+ *
+ * @author richter
+ */
+public class PathDescriptionCache implements PathDescriptionResolver {
+    /**
+     * The maximum number of cached descriptions used by
+     * {@link #PathDescriptionCache(de.richtercloud.validation.tools.FieldRetriever, de.richtercloud.validation.tools.FieldNameLambda) }.
+     */
+    public static final long MAXIMUM_SIZE_DEFAULT = 1000;
+    private final FieldRetriever fieldRetriever;
+    private final FieldNameLambda fieldNameLambda;
+    private final Cache<PathKey, CachedPath> cache;
+
+    public PathDescriptionCache(FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda) {
+        this(fieldRetriever,
+                fieldNameLambda,
+                MAXIMUM_SIZE_DEFAULT);
+    }
+
+    /**
+     * Creates a new {@code PathDescriptionCache}.
+     *
+     * @param fieldRetriever the field retriever to use to resolve descriptions
+     * @param fieldNameLambda the field name lambda to use to resolve
+     *     descriptions
+     * @param maximumSize the maximum number of cached descriptions after which
+     *     the least recently used ones are evicted
+     * @throws IllegalArgumentException if {@code fieldRetriever} or
+     *     {@code fieldNameLambda} is {@code null} or {@code maximumSize} is
+     *     less than {@code 1}
+     */
+    public PathDescriptionCache(FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda,
+            long maximumSize) {
+        if(fieldRetriever == null) {
+            throw new IllegalArgumentException("fieldRetriever mustn't be null");
+        }
+        if(fieldNameLambda == null) {
+            throw new IllegalArgumentException("fieldNameLambda mustn't be null");
+        }
+        if(maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize has to be greater than 0");
+        }
+        this.fieldRetriever = fieldRetriever;
+        this.fieldNameLambda = fieldNameLambda;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public FieldRetriever getFieldRetriever() {
+        return fieldRetriever;
+    }
+
+    public FieldNameLambda getFieldNameLambda() {
+        return fieldNameLambda;
+    }
+
+    /**
+     * Retrieves the cached description of {@code path} or resolves and caches
+     * it if it's not cached yet.
+     *
+     * @param rootClass the class of the validated instance
+     * @param path the property path of the violation
+     * @return the description of {@code path}
+     * @throws IllegalArgumentException if the description can't be resolved
+     */
+    /*
+    internal implementation notes:
+    - Cache.get(K, Callable) isn't used because it wraps
+    IllegalArgumentExceptions; concurrent misses of the same key resolve the
+    same value which is harmless
+    */
+    public String getPathDescription(Class<?> rootClass,
+            Path path) {
+        return getCachedPath(rootClass,
+                path).description.getValue();
+    }
+
+    private CachedPath getCachedPath(Class<?> rootClass,
+            Path path) {
+        PathKey key = new PathKey(rootClass,
+                normalizePath(path));
+        CachedPath retValue = cache.getIfPresent(key);
+        if(retValue == null) {
+            List<String> fieldNames = new ArrayList<>();
+            try {
+                ValidationTools.resolveFieldNames(rootClass,
+                        path,
+                        fieldRetriever,
+                        fieldNameLambda,
+                        fieldNames::add);
+            }catch(IOException ex) {
+                throw new AssertionError("List.add doesn't throw IOException",
+                        ex);
+            }
+            retValue = new CachedPath(fieldNames.toArray(new String[fieldNames.size()]));
+            cache.put(key,
+                    retValue);
+        }
+        return retValue;
+    }
+
+    @Override
+    public void appendPathDescription(Appendable target,
+            Class<?> rootClass,
+            Path path) throws IOException {
+        //written as pre-encoded bytes to byte oriented targets
+        getCachedPath(rootClass,
+                path).description.appendTo(target);
+    }
+
+    @Override
+    public void resolveFieldNames(Class<?> rootClass,
+            Path path,
+            FieldNameConsumer fieldNameConsumer) throws IOException {
+        for(String fieldName : getCachedPath(rootClass,
+                path).fieldNames) {
+            fieldNameConsumer.accept(fieldName);
+        }
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Creates a representation of {@code path} which contains everything the
+     * description depends on, i.e. kinds, names and whether nodes are inside an
+     * iterable, but not indices and keys.
+     *
+     * @param path the path to normalize
+     * @return the normalized path
+     */
+    static String normalizePath(Path path) {
+        StringBuilder retValueBuilder = new StringBuilder(64);
+        for(Node node : path) {
+            if(node.isInIterable()) {
+                retValueBuilder.append("[]");
+            }
+            if(node.getKind() == ElementKind.PROPERTY) {
+                retValueBuilder.append('.').append(node.getName());
+            }else {
+                retValueBuilder.append('#').append(node.getKind().name());
+            }
+        }
+        return retValueBuilder.toString();
+    }
+
+    /**
+     * The resolved field names of a path and the description rendered from
+     * them which is encoded to UTF-8 when it's written to a byte oriented
+     * target for the first time.
+     */
+    private static final class CachedPath {
+        private final String[] fieldNames;
+        private final EncodedFragment description;
+
+        CachedPath(String[] fieldNames) {
+            this.fieldNames = fieldNames;
+            StringBuilder descriptionBuilder = new StringBuilder(fieldNames.length * 16);
+            for(String fieldName : fieldNames) {
+                descriptionBuilder.append(fieldName).append(": ");
+            }
+            this.description = new EncodedFragment(descriptionBuilder.toString());
+        }
+    }
+
+    private static final class PathKey {
+        private final Class<?> rootClass;
+        private final String normalizedPath;
+        private final int hashCode;
+
+        PathKey(Class<?> rootClass,
+                String normalizedPath) {
+            this.rootClass = rootClass;
+            this.normalizedPath = normalizedPath;
+            this.hashCode = 31 * rootClass.hashCode() + normalizedPath.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PathKey)) {
+                return false;
+            }
+            final PathKey other = (PathKey) obj;
+            return this.rootClass == other.rootClass
+                    && Objects.equals(this.normalizedPath, other.normalizedPath);
+        }
+    }
+}
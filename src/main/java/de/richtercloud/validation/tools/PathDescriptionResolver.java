@@ -0,0 +1,54 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import javax.validation.Path;
+
+/**
+ * Resolves the description of a property path which is prepended to the
+ * violation message in
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }.
+ *
+ * @author richter
+ */
+interface PathDescriptionResolver {
+
+    /**
+     * Resolves the description of {@code path} and writes it to
+     * {@code target}.
+     *
+     * @param target the target to write to
+     * @param rootClass the class of the validated instance
+     * @param path the property path of the violation
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendPathDescription(Appendable target,
+            Class<?> rootClass,
+            Path path) throws IOException;
+
+    /**
+     * Resolves the field names of {@code path} and passes them to
+     * {@code fieldNameConsumer} in the order of the path.
+     *
+     * @param rootClass the class of the validated instance
+     * @param path the property path of the violation
+     * @param fieldNameConsumer the consumer to pass the field names to
+     * @throws IOException if {@code fieldNameConsumer} throws it
+     */
+    void resolveFieldNames(Class<?> rootClass,
+            Path path,
+            FieldNameConsumer fieldNameConsumer) throws IOException;
+}
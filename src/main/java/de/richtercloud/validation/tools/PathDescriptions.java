@@ -0,0 +1,342 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.validation.Path;
+import javax.validation.Path.Node;
+
+/**
+ * Descriptions of property paths which replace the descriptions constructed
+ * from fields. They're usually keyed by path patterns instead of {@link Path}
+ * instances. The patterns are compiled into a trie once so that looking up
+ * the description of a violation walks the nodes of its path with hash
+ * lookups of their names and indices instead of hashing the provider's
+ * {@code Path} implementation which hashes all of its nodes. Descriptions
+ * keyed by {@code Path} instances are supported through
+ * {@link #forPaths(java.util.Map) }.
+ *
+ * A pattern consists of property names separated by {@code .}, e.g.
+ * {@code order.items[].address.street}. A property of an element of an
+ * iterable is preceded by the index or key of the element in brackets, e.g.
+ * {@code items[3].value} or {@code itemMap[first].value}. {@code []} and
+ * {@code [*]} match any index or key and the elements of sets. An index or key
+ * takes precedence over a wildcard at the same position. A pattern ending with
+ * brackets, e.g. {@code items[*]}, matches violations of class-level
+ * constraints of elements and the empty pattern those of the validated
+ * instance. Keys containing {@code .}, {@code [} or {@code ]} can't be
+ * expressed.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- the children of each wildcard are merged into its exact siblings when the
+trie is compiled so that a lookup never has to backtrack; exact descriptions
+are never overwritten by merged ones
+- a numeric index is inserted into both the index and the key branch because
+keys of maps with integer keys are compared with their string representation
+*/
+public final class PathDescriptions {
+    /**
+     * Doesn't provide any descriptions.
+     */
+    public static final PathDescriptions NONE = new PathDescriptions(Collections.emptyMap());
+    private static final String WILDCARD = "*";
+    private final TrieNode root = new TrieNode();
+    /**
+     * The descriptions keyed by paths or {@code null} if descriptions are
+     * keyed by patterns.
+     */
+    private final Map<Path, String> pathDescriptionMap;
+
+    /**
+     * Provides the descriptions of {@code pathDescriptionMap} which are
+     * looked up with {@link Map#get(java.lang.Object) }. The map is
+     * referenced and not copied.
+     *
+     * @param pathDescriptionMap the descriptions keyed by the paths of
+     *     violations
+     * @return the path descriptions
+     * @throws IllegalArgumentException if {@code pathDescriptionMap} is
+     *     {@code null}
+     */
+    public static PathDescriptions forPaths(Map<Path, String> pathDescriptionMap) {
+        if(pathDescriptionMap == null) {
+            throw new IllegalArgumentException("pathDescriptionMap mustn't be null");
+        }
+        return new PathDescriptions(pathDescriptionMap,
+                null //descriptions
+        );
+    }
+
+    /**
+     * Creates path descriptions from {@code descriptions}.
+     *
+     * @param descriptions the descriptions keyed by path pattern
+     * @throws IllegalArgumentException if {@code descriptions} is {@code null}
+     *     or contains {@code null} or a malformed pattern
+     */
+    public PathDescriptions(Map<String, String> descriptions) {
+        this(null, //pathDescriptionMap
+                descriptions);
+    }
+
+    private PathDescriptions(Map<Path, String> pathDescriptionMap,
+            Map<String, String> descriptions) {
+        this.pathDescriptionMap = pathDescriptionMap;
+        if(pathDescriptionMap != null) {
+            return;
+        }
+        if(descriptions == null) {
+            throw new IllegalArgumentException("descriptions mustn't be null");
+        }
+        for(Map.Entry<String, String> description : descriptions.entrySet()) {
+            if(description.getKey() == null) {
+                throw new IllegalArgumentException("descriptions mustn't contain null patterns");
+            }
+            if(description.getValue() == null) {
+                throw new IllegalArgumentException(String.format("description of pattern '%s' mustn't be null",
+                        description.getKey()));
+            }
+            insert(root,
+                    parsePattern(description.getKey()),
+                    0,
+                    description.getValue());
+        }
+        root.normalize();
+    }
+
+    /**
+     * Looks up the description of {@code path}.
+     *
+     * @param path the property path of the violation
+     * @return the description of the most specific matching pattern or
+     *     {@code null} if no pattern matches
+     */
+    public String getDescription(Path path) {
+        if(pathDescriptionMap != null) {
+            return pathDescriptionMap.get(path);
+        }
+        TrieNode node = root;
+        for(Node pathNode : path) {
+            if(pathNode.isInIterable()) {
+                node = node.getElement(pathNode);
+                if(node == null) {
+                    return null;
+                }
+            }
+            if(pathNode.getName() != null) {
+                node = node.properties.get(pathNode.getName());
+                if(node == null) {
+                    return null;
+                }
+            }
+        }
+        return node.description;
+    }
+
+    /**
+     * Splits {@code pattern} into property and element edges. Element edges
+     * are stored as their content enclosed in brackets in order to tell them
+     * apart from property edges.
+     */
+    private static List<String> parsePattern(String pattern) {
+        List<String> retValue = new ArrayList<>();
+        int position = 0;
+        while(position < pattern.length()) {
+            int nameEnd = position;
+            while(nameEnd < pattern.length()
+                    && pattern.charAt(nameEnd) != '.'
+                    && pattern.charAt(nameEnd) != '['
+                    && pattern.charAt(nameEnd) != ']') {
+                nameEnd++;
+            }
+            if(nameEnd == position) {
+                throw new IllegalArgumentException(String.format("pattern '%s' contains an empty property name at position %d",
+                        pattern,
+                        position));
+            }
+            retValue.add(pattern.substring(position, nameEnd));
+            position = nameEnd;
+            if(position < pattern.length() && pattern.charAt(position) == '[') {
+                int elementEnd = pattern.indexOf(']', position);
+                if(elementEnd == -1) {
+                    throw new IllegalArgumentException(String.format("pattern '%s' contains an unclosed bracket at position %d",
+                            pattern,
+                            position));
+                }
+                String element = pattern.substring(position+1, elementEnd);
+                if(element.indexOf('[') != -1) {
+                    throw new IllegalArgumentException(String.format("pattern '%s' contains nested brackets at position %d",
+                            pattern,
+                            position));
+                }
+                retValue.add("[" + (element.isEmpty() ? WILDCARD : element));
+                position = elementEnd+1;
+            }
+            if(position < pattern.length()) {
+                if(pattern.charAt(position) != '.' || position == pattern.length()-1) {
+                    throw new IllegalArgumentException(String.format("pattern '%s' contains an unexpected character at position %d",
+                            pattern,
+                            position));
+                }
+                position++;
+            }
+        }
+        return retValue;
+    }
+
+    private static void insert(TrieNode node,
+            List<String> edges,
+            int edgeIndex,
+            String description) {
+        if(edgeIndex == edges.size()) {
+            node.description = description;
+            return;
+        }
+        String edge = edges.get(edgeIndex);
+        if(edge.charAt(0) != '[') {
+            insert(node.properties.computeIfAbsent(edge, key -> new TrieNode()),
+                    edges,
+                    edgeIndex+1,
+                    description);
+            return;
+        }
+        String element = edge.substring(1);
+        if(WILDCARD.equals(element)) {
+            if(node.wildcard == null) {
+                node.wildcard = new TrieNode();
+            }
+            insert(node.wildcard,
+                    edges,
+                    edgeIndex+1,
+                    description);
+            return;
+        }
+        Integer index = parseIndex(element);
+        if(index != null) {
+            insert(node.indices.computeIfAbsent(index, key -> new TrieNode()),
+                    edges,
+                    edgeIndex+1,
+                    description);
+        }
+        insert(node.keys.computeIfAbsent(element, key -> new TrieNode()),
+                edges,
+                edgeIndex+1,
+                description);
+    }
+
+    private static Integer parseIndex(String element) {
+        for(int i = 0; i < element.length(); i++) {
+            if(!Character.isDigit(element.charAt(i))) {
+                return null;
+            }
+        }
+        try {
+            return Integer.valueOf(element);
+        }catch(NumberFormatException ex) {
+            //too large for an index, but still a valid key
+            return null;
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<String, TrieNode> properties = new HashMap<>(4);
+        private final Map<Integer, TrieNode> indices = new HashMap<>(4);
+        private final Map<String, TrieNode> keys = new HashMap<>(4);
+        private TrieNode wildcard;
+        private String description;
+
+        /**
+         * Looks up the node of the element edge of {@code pathNode} which
+         * contains its index or key.
+         */
+        private TrieNode getElement(Node pathNode) {
+            TrieNode retValue = null;
+            if(pathNode.getIndex() != null) {
+                retValue = indices.get(pathNode.getIndex());
+            }else if(pathNode.getKey() != null) {
+                Object key = pathNode.getKey();
+                retValue = keys.get(key instanceof String
+                        ? (String) key
+                        : key.toString());
+            }
+            return retValue != null
+                    ? retValue
+                    : wildcard;
+        }
+
+        private void normalize() {
+            if(wildcard != null) {
+                for(TrieNode element : indices.values()) {
+                    element.merge(wildcard);
+                }
+                for(TrieNode element : keys.values()) {
+                    element.merge(wildcard);
+                }
+                wildcard.normalize();
+            }
+            for(TrieNode property : properties.values()) {
+                property.normalize();
+            }
+            for(TrieNode element : indices.values()) {
+                element.normalize();
+            }
+            for(TrieNode element : keys.values()) {
+                element.normalize();
+            }
+        }
+
+        /**
+         * Adds everything which {@code other} describes and this node doesn't
+         * to this node.
+         */
+        private void merge(TrieNode other) {
+            if(description == null) {
+                description = other.description;
+            }
+            mergeChildren(properties,
+                    other.properties);
+            mergeChildren(indices,
+                    other.indices);
+            mergeChildren(keys,
+                    other.keys);
+            if(other.wildcard != null) {
+                if(wildcard == null) {
+                    wildcard = new TrieNode();
+                }
+                wildcard.merge(other.wildcard);
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+        private static <K> void mergeChildren(Map<K, TrieNode> children,
+                Map<K, TrieNode> otherChildren) {
+            for(Map.Entry<K, TrieNode> otherChild : otherChildren.entrySet()) {
+                //merging into an empty node copies the subtree of the other
+                //node so that no node is shared
+                children.computeIfAbsent(otherChild.getKey(), key -> new TrieNode())
+                        .merge(otherChild.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.Path.Node;
+
+/**
+ * Resolves path descriptions of the violations of one message and shares the
+ * resolution of common prefixes between them. Each distinct prefix of
+ * property names, e.g. {@code order.items[].address}, is resolved with the
+ * field retriever and rendered once and stored in a trie. Since indices and
+ * keys don't influence the description, the violations of all elements of a
+ * collection share the same nodes.
+ *
+ * Instances aren't thread-safe and are meant to be used for one message only
+ * in order to not keep references to classes and fields. This is the only
+ * implementation of the resolution of paths to fields which is also used by
+ * {@link PathDescriptionCache} through
+ * {@link ValidationTools#resolveFieldNames(java.lang.Class, javax.validation.Path, de.richtercloud.validation.tools.FieldRetriever, de.richtercloud.validation.tools.FieldNameLambda, de.richtercloud.validation.tools.FieldNameConsumer) }.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- children are kept in separate maps for nodes inside and outside of
+iterables because the class to look up the field in depends on it; this avoids
+building composite keys for every lookup
+*/
+final class PathPrefixTrie implements PathDescriptionResolver {
+    private final FieldRetriever fieldRetriever;
+    private final FieldNameLambda fieldNameLambda;
+    private final Map<Class<?>, TrieNode> roots = new HashMap<>(4);
+
+    PathPrefixTrie(FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda) {
+        this.fieldRetriever = fieldRetriever;
+        this.fieldNameLambda = fieldNameLambda;
+    }
+
+    @Override
+    public void appendPathDescription(Appendable target,
+            Class<?> rootClass,
+            Path path) throws IOException {
+        TrieNode node = retrieveNode(rootClass,
+                path);
+        if(node.description != null) {
+            node.description.appendTo(target);
+        }
+    }
+
+    @Override
+    public void resolveFieldNames(Class<?> rootClass,
+            Path path,
+            FieldNameConsumer fieldNameConsumer) throws IOException {
+        retrieveNode(rootClass,
+                path).acceptFieldNames(fieldNameConsumer);
+    }
+
+    /**
+     * Walks down the trie along the property nodes of {@code path} and
+     * resolves nodes which haven't been visited before.
+     *
+     * @throws IllegalArgumentException if {@code path} contains nodes of other
+     *     kinds than {@link ElementKind#PROPERTY} and {@link ElementKind#BEAN}
+     *     or refers to fields which can't be resolved
+     */
+    private TrieNode retrieveNode(Class<?> rootClass,
+            Path path) {
+        TrieNode node = roots.get(rootClass);
+        if(node == null) {
+            node = new TrieNode(null, //parent
+                    rootClass,
+                    null, //field
+                    null //fieldName
+            );
+            roots.put(rootClass,
+                    node);
+        }
+        for(Node propertyPathNode : path) {
+            if(propertyPathNode.getKind() == ElementKind.PROPERTY) {
+                node = retrieveChild(node,
+                        propertyPathNode.getName(),
+                        propertyPathNode.isInIterable());
+            }else if(propertyPathNode.getKind() != ElementKind.BEAN) {
+                throw new IllegalArgumentException(String.format("only "
+                        + "kinds %s and %s are supported",
+                        ElementKind.PROPERTY,
+                        ElementKind.BEAN));
+            }
+            //BEAN nodes don't contribute to the description since either
+            //the previous nodes describe the path of a leaf bean or the
+            //violation refers to the root bean in which case a message
+            //without path is comprehensive as well
+        }
+        return node;
+    }
+
+    private TrieNode retrieveChild(TrieNode parent,
+            String name,
+            boolean inIterable) {
+        Map<String, TrieNode> children = inIterable
+                ? parent.iterableChildren
+                : parent.children;
+        TrieNode retValue = children != null
+                ? children.get(name)
+                : null;
+        if(retValue != null) {
+            return retValue;
+        }
+        Class<?> fieldOwner;
+        if(parent.field == null) {
+            fieldOwner = parent.fieldOwner;
+        }else if(inIterable) {
+            fieldOwner = FieldTypeResolver.resolveElementType(parent.fieldOwner,
+                    parent.field);
+        }else {
+            fieldOwner = FieldTypeResolver.resolveFieldType(parent.fieldOwner,
+                    parent.field);
+        }
+        Field field = fieldRetriever.retrieveRelevantField(fieldOwner,
+                name);
+        if(field == null) {
+            throw new IllegalArgumentException("validation violoation constraint on field which isn't part of the validated instance");
+        }
+        String fieldName = fieldNameLambda.getFieldName(field);
+        if(fieldName == null) {
+            fieldName = field.getName();
+        }
+        retValue = new TrieNode(parent,
+                fieldOwner,
+                field,
+                fieldName);
+        if(children == null) {
+            children = new HashMap<>(4);
+            if(inIterable) {
+                parent.iterableChildren = children;
+            }else {
+                parent.children = children;
+            }
+        }
+        children.put(name,
+                retValue);
+        return retValue;
+    }
+
+    /**
+     * A resolved prefix of property paths.
+     */
+    private static final class TrieNode {
+        private final TrieNode parent;
+        /**
+         * The class {@link #field} has been retrieved from or the root class
+         * for root nodes.
+         */
+        private final Class<?> fieldOwner;
+        /**
+         * {@code null} for root nodes.
+         */
+        private final Field field;
+        private final String fieldName;
+        /**
+         * The description of the prefix, e.g. {@code bean1: bean2s: },
+         * {@code null} for root nodes.
+         */
+        private final EncodedFragment description;
+        private Map<String, TrieNode> children;
+        private Map<String, TrieNode> iterableChildren;
+
+        TrieNode(TrieNode parent,
+                Class<?> fieldOwner,
+                Field field,
+                String fieldName) {
+            this.parent = parent;
+            this.fieldOwner = fieldOwner;
+            this.field = field;
+            this.fieldName = fieldName;
+            if(fieldName == null) {
+                this.description = null;
+            }else {
+                //adding : between property names is fine and makes
+                //descriptions appear nicer than when separated with .
+                this.description = new EncodedFragment(parent.description == null
+                        ? fieldName + ": "
+                        : parent.description.getValue() + fieldName + ": ");
+            }
+        }
+
+        void acceptFieldNames(FieldNameConsumer fieldNameConsumer) throws IOException {
+            if(fieldName == null) {
+                return;
+            }
+            parent.acceptFieldNames(fieldNameConsumer);
+            fieldNameConsumer.accept(fieldName);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+
+/**
+ * A violation passed to a {@link ViolationRenderer} together with the means
+ * to describe its path. If violations are aggregated, it represents all
+ * violations with the same normalized path and message.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- one instance is reused for all violations of a message in order to avoid
+allocations per violation
+*/
+public final class RenderedViolation {
+    private final Object instance;
+    private final PathDescriptionResolver pathDescriptionResolver;
+    private final PathDescriptions pathDescriptions;
+    private final boolean skipPathes;
+    private final boolean aggregated;
+    private ConstraintViolation<?> violation;
+    private int count;
+
+    RenderedViolation(Object instance,
+            PathDescriptionResolver pathDescriptionResolver,
+            PathDescriptions pathDescriptions,
+            boolean skipPathes,
+            boolean aggregated) {
+        this.instance = instance;
+        this.pathDescriptionResolver = pathDescriptionResolver;
+        this.pathDescriptions = pathDescriptions;
+        this.skipPathes = skipPathes;
+        this.aggregated = aggregated;
+    }
+
+    void reset(ConstraintViolation<?> violation,
+            int count) {
+        this.violation = violation;
+        this.count = count;
+    }
+
+    /**
+     * The violation or the first violation of the group of aggregated
+     * violations.
+     *
+     * @return the violation
+     */
+    public ConstraintViolation<?> getViolation() {
+        return violation;
+    }
+
+    /**
+     * The number of violations represented which is always {@code 1} if
+     * violations aren't aggregated.
+     *
+     * @return the number of violations
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Whether violations are aggregated in which case indices and keys of the
+     * path of {@link #getViolation() } only apply to the first violation.
+     *
+     * @return {@code true} if violations are aggregated
+     */
+    public boolean isAggregated() {
+        return aggregated;
+    }
+
+    public boolean isSkipPathes() {
+        return skipPathes;
+    }
+
+    /**
+     * The description of the path provided by the {@link PathDescriptions} of
+     * the rendering options.
+     *
+     * @return the provided description or {@code null} if none is provided or
+     *     pathes are skipped
+     */
+    public String getProvidedPathDescription() {
+        if(skipPathes) {
+            return null;
+        }
+        return pathDescriptions.getDescription(violation.getPropertyPath());
+    }
+
+    /**
+     * Writes the provided description of the path or resolves it, e.g.
+     * {@code bean1: bean2s: property0: }. Nothing is written if pathes are
+     * skipped.
+     *
+     * @param target the target to write to
+     * @throws IOException if writing to {@code target} fails
+     */
+    public void appendPathDescription(Appendable target) throws IOException {
+        if(skipPathes) {
+            return;
+        }
+        String pathString = pathDescriptions.getDescription(violation.getPropertyPath());
+        if(pathString == null) {
+            pathDescriptionResolver.appendPathDescription(target,
+                    instance.getClass(),
+                    violation.getPropertyPath());
+        }else {
+            target.append(pathString);
+        }
+    }
+
+    /**
+     * Resolves the field names of the path regardless of provided
+     * descriptions and whether pathes are skipped.
+     *
+     * @param fieldNameConsumer the consumer to pass the field names to
+     * @throws IOException if {@code fieldNameConsumer} throws it
+     */
+    public void resolveFieldNames(FieldNameConsumer fieldNameConsumer) throws IOException {
+        pathDescriptionResolver.resolveFieldNames(instance.getClass(),
+                violation.getPropertyPath(),
+                fieldNameConsumer);
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+/**
+ * Controls how messages are built by
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }
+ * and the other methods taking rendering options: the format given as
+ * {@link OutputMode} or custom {@link ViolationRenderer}, the descriptions
+ * replacing the ones constructed from paths, whether to skip pathes and the
+ * bounds of the size of messages for huge sets of violations, e.g. when all
+ * elements of a large collection violate the same constraint.
+ *
+ * If aggregation is enabled, violations with the same path (with indices and
+ * keys of iterable nodes ignored) and the same message are written once
+ * together with their count. If the number of written violation lines reaches
+ * {@code maxLines} or if writing the next line would exceed
+ * {@code maxCharacters} characters of violation lines, the remaining lines
+ * are skipped without resolving their paths and replaced with a
+ * {@code ...and K more} line. Header and footer of the message don't count
+ * towards the limits.
+ *
+ * Instances are immutable and can be shared between threads.
+ *
+ * @author richter
+ */
+public final class RenderingOptions {
+    /**
+     * The value of {@code maxLines} and {@code maxCharacters} for no limit.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    /**
+     * {@code null} if a custom renderer is used.
+     */
+    private final OutputMode outputMode;
+    private final ViolationRenderer renderer;
+    private final PathDescriptions pathDescriptions;
+    private final boolean skipPathes;
+    private final boolean aggregate;
+    private final int maxLines;
+    private final int maxCharacters;
+
+    /**
+     * Creates rendering options which write every violation of
+     * {@code outputMode} on its own line without path descriptions and limits
+     * which is the behaviour of the methods which don't take rendering
+     * options.
+     *
+     * @param outputMode how to generate the output (see {@link OutputMode}
+     *     for details
+     * @throws IllegalArgumentException if {@code outputMode} is {@code null}
+     */
+    public RenderingOptions(OutputMode outputMode) {
+        this(outputMode,
+                PathDescriptions.NONE,
+                false, //skipPathes
+                false, //aggregate
+                UNLIMITED, //maxLines
+                UNLIMITED //maxCharacters
+        );
+    }
+
+    /**
+     * Creates new rendering options for a built-in output mode.
+     *
+     * @param outputMode how to generate the output (see {@link OutputMode}
+     *     for details
+     * @param pathDescriptions allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param aggregate whether to write violations with the same normalized
+     *     path and message only once with their count
+     * @param maxLines the maximum number of violation lines to write
+     *     ({@link #UNLIMITED} for no limit)
+     * @param maxCharacters the maximum number of characters of all violation
+     *     lines ({@link #UNLIMITED} for no limit)
+     * @throws IllegalArgumentException if {@code outputMode} or
+     *     {@code pathDescriptions} is {@code null} or {@code maxLines} or
+     *     {@code maxCharacters} is negative
+     */
+    public RenderingOptions(OutputMode outputMode,
+            PathDescriptions pathDescriptions,
+            boolean skipPathes,
+            boolean aggregate,
+            int maxLines,
+            int maxCharacters) {
+        this(outputMode,
+                retrieveRenderer(outputMode),
+                pathDescriptions,
+                skipPathes,
+                aggregate,
+                maxLines,
+                maxCharacters);
+    }
+
+    /**
+     * Creates new rendering options for a custom format, e.g. a
+     * {@link TemplateViolationRenderer} for Markdown or ANSI console output.
+     *
+     * @param renderer the renderer of the format to generate
+     * @param pathDescriptions allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param aggregate whether to write violations with the same normalized
+     *     path and message only once with their count
+     * @param maxLines the maximum number of violation lines to write
+     *     ({@link #UNLIMITED} for no limit)
+     * @param maxCharacters the maximum number of characters of all violation
+     *     lines ({@link #UNLIMITED} for no limit)
+     * @throws IllegalArgumentException if {@code renderer} or
+     *     {@code pathDescriptions} is {@code null} or {@code maxLines} or
+     *     {@code maxCharacters} is negative
+     */
+    public RenderingOptions(ViolationRenderer renderer,
+            PathDescriptions pathDescriptions,
+            boolean skipPathes,
+            boolean aggregate,
+            int maxLines,
+            int maxCharacters) {
+        this(null, //outputMode
+                renderer,
+                pathDescriptions,
+                skipPathes,
+                aggregate,
+                maxLines,
+                maxCharacters);
+    }
+
+    private RenderingOptions(OutputMode outputMode,
+            ViolationRenderer renderer,
+            PathDescriptions pathDescriptions,
+            boolean skipPathes,
+            boolean aggregate,
+            int maxLines,
+            int maxCharacters) {
+        if(renderer == null) {
+            throw new IllegalArgumentException("renderer mustn't be null");
+        }
+        if(pathDescriptions == null) {
+            throw new IllegalArgumentException("pathDescriptions mustn't be null");
+        }
+        if(maxLines < 0) {
+            throw new IllegalArgumentException("maxLines mustn't be negative");
+        }
+        if(maxCharacters < 0) {
+            throw new IllegalArgumentException("maxCharacters mustn't be negative");
+        }
+        this.outputMode = outputMode;
+        this.renderer = renderer;
+        this.pathDescriptions = pathDescriptions;
+        this.skipPathes = skipPathes;
+        this.aggregate = aggregate;
+        this.maxLines = maxLines;
+        this.maxCharacters = maxCharacters;
+    }
+
+    private static ViolationRenderer retrieveRenderer(OutputMode outputMode) {
+        if(outputMode == null) {
+            throw new IllegalArgumentException("outputMode mustn't be null");
+        }
+        return outputMode.getRenderer();
+    }
+
+    /**
+     * The built-in output mode.
+     *
+     * @return the output mode or {@code null} if a custom renderer is used
+     */
+    public OutputMode getOutputMode() {
+        return outputMode;
+    }
+
+    /**
+     * The renderer of the output mode or the custom renderer.
+     *
+     * @return the renderer
+     */
+    public ViolationRenderer getRenderer() {
+        return renderer;
+    }
+
+    public PathDescriptions getPathDescriptions() {
+        return pathDescriptions;
+    }
+
+    public boolean isSkipPathes() {
+        return skipPathes;
+    }
+
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public int getMaxCharacters() {
+        return maxCharacters;
+    }
+
+    /**
+     * Whether the length of violation lines needs to be known before they're
+     * written.
+     */
+    boolean isCharacterLimited() {
+        return maxCharacters != UNLIMITED;
+    }
+}
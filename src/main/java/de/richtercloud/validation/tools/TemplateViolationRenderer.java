@@ -0,0 +1,207 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ViolationRenderer} which writes constant header, separator and
+ * footer and a template per violation. Templates are compiled once into
+ * constant fragments and placeholders when the renderer is created.
+ *
+ * The violation template supports the placeholders {@code {path}} (the path
+ * description, e.g. {@code bean1: bean2s: property0: }, empty if pathes are
+ * skipped), {@code {message}} (the violation message) and {@code {count}}
+ * (e.g. {@code  (20 times)} for aggregated violations, empty for single
+ * violations). The omitted template is written in front of the footer if
+ * violations have been omitted because of the limits of
+ * {@link RenderingOptions} and supports the placeholder {@code {omitted}}
+ * (the number of omitted violations). Each template only supports its own
+ * placeholders. All other characters including braces which aren't part of
+ * a placeholder are written as they are.
+ *
+ * @author richter
+ */
+public final class TemplateViolationRenderer implements ViolationRenderer {
+    private static final String PATH_PLACEHOLDER = "{path}";
+    private static final String MESSAGE_PLACEHOLDER = "{message}";
+    private static final String COUNT_PLACEHOLDER = "{count}";
+    private static final String OMITTED_PLACEHOLDER = "{omitted}";
+    private final EncodedFragment header;
+    private final Part[] violationParts;
+    private final EncodedFragment separator;
+    private final Part[] omittedParts;
+    private final EncodedFragment footer;
+
+    /**
+     * Creates a new renderer and compiles the templates.
+     *
+     * @param header the header to write in front of the first violation
+     * @param violationTemplate the template to write for each violation
+     * @param separator the separator to write between violations
+     * @param omittedTemplate the template to write if violations have been
+     *     omitted
+     * @param footer the footer to write after the last violation
+     * @throws IllegalArgumentException if any argument is {@code null} or
+     *     {@code violationTemplate} contains {@code {omitted}} or
+     *     {@code omittedTemplate} contains {@code {path}}, {@code {message}}
+     *     or {@code {count}}
+     */
+    public TemplateViolationRenderer(String header,
+            String violationTemplate,
+            String separator,
+            String omittedTemplate,
+            String footer) {
+        if(header == null) {
+            throw new IllegalArgumentException("header mustn't be null");
+        }
+        if(violationTemplate == null) {
+            throw new IllegalArgumentException("violationTemplate mustn't be null");
+        }
+        if(separator == null) {
+            throw new IllegalArgumentException("separator mustn't be null");
+        }
+        if(omittedTemplate == null) {
+            throw new IllegalArgumentException("omittedTemplate mustn't be null");
+        }
+        if(footer == null) {
+            throw new IllegalArgumentException("footer mustn't be null");
+        }
+        this.header = new EncodedFragment(header);
+        this.violationParts = compile(violationTemplate,
+                "violationTemplate",
+                true //violationPlaceholders
+        );
+        this.separator = new EncodedFragment(separator);
+        this.omittedParts = compile(omittedTemplate,
+                "omittedTemplate",
+                false //violationPlaceholders
+        );
+        this.footer = new EncodedFragment(footer);
+    }
+
+    /**
+     * Compiles {@code template} into parts.
+     *
+     * @param violationPlaceholders whether the template is written for a
+     *     violation and supports {@code {path}}, {@code {message}} and
+     *     {@code {count}} or is written for omitted violations and supports
+     *     {@code {omitted}}
+     * @throws IllegalArgumentException if {@code template} contains a
+     *     placeholder which isn't supported
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static Part[] compile(String template,
+            String templateName,
+            boolean violationPlaceholders) {
+        List<Part> parts = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while(i < template.length()) {
+            Part placeholder = null;
+            int placeholderLength = 0;
+            if(template.startsWith(PATH_PLACEHOLDER, i)) {
+                placeholder = (target, violation, omitted) -> violation.appendPathDescription(target);
+                placeholderLength = PATH_PLACEHOLDER.length();
+            }else if(template.startsWith(MESSAGE_PLACEHOLDER, i)) {
+                placeholder = (target, violation, omitted) -> target.append(violation.getViolation().getMessage());
+                placeholderLength = MESSAGE_PLACEHOLDER.length();
+            }else if(template.startsWith(COUNT_PLACEHOLDER, i)) {
+                placeholder = (target, violation, omitted) -> {
+                    if(violation.getCount() > 1) {
+                        target.append(" (")
+                                .append(Integer.toString(violation.getCount()))
+                                .append(" times)");
+                    }
+                };
+                placeholderLength = COUNT_PLACEHOLDER.length();
+            }else if(template.startsWith(OMITTED_PLACEHOLDER, i)) {
+                placeholder = (target, violation, omitted) -> target.append(Integer.toString(omitted));
+                placeholderLength = OMITTED_PLACEHOLDER.length();
+            }
+            if(placeholder == null) {
+                i++;
+                continue;
+            }
+            if(violationPlaceholders == template.startsWith(OMITTED_PLACEHOLDER, i)) {
+                throw new IllegalArgumentException(String.format("%s doesn't support the placeholder %s",
+                        templateName,
+                        template.substring(i, i+placeholderLength)));
+            }
+            if(literalStart < i) {
+                parts.add(literal(template.substring(literalStart, i)));
+            }
+            parts.add(placeholder);
+            i += placeholderLength;
+            literalStart = i;
+        }
+        if(literalStart < template.length()) {
+            parts.add(literal(template.substring(literalStart)));
+        }
+        return parts.toArray(new Part[parts.size()]);
+    }
+
+    private static Part literal(String value) {
+        EncodedFragment fragment = new EncodedFragment(value);
+        return (target, violation, omitted) -> fragment.appendTo(target);
+    }
+
+    @Override
+    public void appendHeader(Appendable target) throws IOException {
+        header.appendTo(target);
+    }
+
+    @Override
+    public void appendViolation(Appendable target,
+            RenderedViolation violation) throws IOException {
+        for(Part part : violationParts) {
+            part.append(target,
+                    violation,
+                    0 //omitted
+            );
+        }
+    }
+
+    @Override
+    public void appendSeparator(Appendable target) throws IOException {
+        separator.appendTo(target);
+    }
+
+    @Override
+    public void appendFooter(Appendable target,
+            int omittedViolationCount) throws IOException {
+        if(omittedViolationCount > 0) {
+            for(Part part : omittedParts) {
+                part.append(target,
+                        null, //violation
+                        omittedViolationCount);
+            }
+        }
+        footer.appendTo(target);
+    }
+
+    /**
+     * A compiled constant fragment or placeholder of a template.
+     */
+    @FunctionalInterface
+    private interface Part {
+
+        void append(Appendable target,
+                RenderedViolation violation,
+                int omitted) throws IOException;
+    }
+}
@@ -0,0 +1,321 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes appended characters to UTF-8 and writes the bytes to a byte
+ * oriented target. Pre-encoded {@link EncodedFragment}s are written without
+ * encoding them again. Unpaired surrogates are encoded as {@code ?} like
+ * {@link String#getBytes(java.nio.charset.Charset) } does.
+ *
+ * {@link #finish() } has to be called after the last character has been
+ * appended.
+ *
+ * @author richter
+ */
+abstract class Utf8Appendable implements Appendable {
+    private char pendingHighSurrogate;
+    private long charCount;
+
+    static Utf8Appendable of(OutputStream target) {
+        return new OutputStreamUtf8Appendable(target);
+    }
+
+    static Utf8Appendable of(ByteBuffer target) {
+        return new ByteBufferUtf8Appendable(target);
+    }
+
+    static Buffer buffer() {
+        return new Buffer();
+    }
+
+    protected abstract void write(int b) throws IOException;
+
+    protected abstract void write(byte[] bytes,
+            int offset,
+            int length) throws IOException;
+
+    /**
+     * Writes the remaining content to the target.
+     *
+     * @throws IOException if writing to the target fails
+     */
+    void finish() throws IOException {
+        if(pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            write('?');
+        }
+    }
+
+    /**
+     * Writes already encoded bytes.
+     *
+     * @param bytes the UTF-8 encoded bytes
+     * @param encodedCharCount the number of characters encoded in
+     *     {@code bytes}
+     * @throws IOException if writing to the target fails
+     */
+    void appendEncoded(byte[] bytes,
+            int encodedCharCount) throws IOException {
+        appendEncoded(bytes,
+                0,
+                bytes.length,
+                encodedCharCount);
+    }
+
+    /**
+     * Writes {@code length} already encoded bytes of {@code bytes} starting at
+     * {@code offset}.
+     *
+     * @param bytes the UTF-8 encoded bytes
+     * @param offset the index of the first byte to write
+     * @param length the number of bytes to write
+     * @param encodedCharCount the number of characters encoded in the written
+     *     bytes
+     * @throws IOException if writing to the target fails
+     */
+    void appendEncoded(byte[] bytes,
+            int offset,
+            int length,
+            long encodedCharCount) throws IOException {
+        if(pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            write('?');
+        }
+        write(bytes,
+                offset,
+                length);
+        charCount += encodedCharCount;
+    }
+
+    /**
+     * The number of characters written so far including the ones of
+     * pre-encoded fragments.
+     */
+    long getCharCount() {
+        return charCount;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence csq0 = csq == null ? "null" : csq;
+        return append(csq0,
+                0,
+                csq0.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq,
+            int start,
+            int end) throws IOException {
+        CharSequence csq0 = csq == null ? "null" : csq;
+        for(int i = start; i < end; i++) {
+            append(csq0.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        charCount++;
+        if(pendingHighSurrogate != 0) {
+            char highSurrogate = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if(Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(highSurrogate,
+                        c);
+                write(0xF0 | codePoint >> 18);
+                write(0x80 | codePoint >> 12 & 0x3F);
+                write(0x80 | codePoint >> 6 & 0x3F);
+                write(0x80 | codePoint & 0x3F);
+                return this;
+            }
+            write('?');
+        }
+        if(c < 0x80) {
+            write(c);
+        }else if(c < 0x800) {
+            write(0xC0 | c >> 6);
+            write(0x80 | c & 0x3F);
+        }else if(Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        }else if(Character.isLowSurrogate(c)) {
+            write('?');
+        }else {
+            write(0xE0 | c >> 12);
+            write(0x80 | c >> 6 & 0x3F);
+            write(0x80 | c & 0x3F);
+        }
+        return this;
+    }
+
+    /**
+     * Buffers bytes in order to avoid a call of {@link OutputStream#write(int) }
+     * per byte. The stream isn't flushed or closed.
+     */
+    private static final class OutputStreamUtf8Appendable extends Utf8Appendable {
+        private final OutputStream target;
+        private final byte[] buffer = new byte[8192];
+        private int bufferLength;
+
+        OutputStreamUtf8Appendable(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        protected void write(int b) throws IOException {
+            if(bufferLength == buffer.length) {
+                target.write(buffer,
+                        0,
+                        bufferLength);
+                bufferLength = 0;
+            }
+            buffer[bufferLength++] = (byte) b;
+        }
+
+        @Override
+        protected void write(byte[] bytes,
+                int offset,
+                int length) throws IOException {
+            if(bufferLength+length > buffer.length) {
+                target.write(buffer,
+                        0,
+                        bufferLength);
+                bufferLength = 0;
+                if(length > buffer.length) {
+                    target.write(bytes,
+                            offset,
+                            length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes,
+                    offset,
+                    buffer,
+                    bufferLength,
+                    length);
+            bufferLength += length;
+        }
+
+        @Override
+        void finish() throws IOException {
+            super.finish();
+            target.write(buffer,
+                    0,
+                    bufferLength);
+            bufferLength = 0;
+        }
+    }
+
+    /**
+     * Writes bytes into the buffer directly.
+     */
+    private static final class ByteBufferUtf8Appendable extends Utf8Appendable {
+        private final ByteBuffer target;
+
+        ByteBufferUtf8Appendable(ByteBuffer target) {
+            this.target = target;
+        }
+
+        @Override
+        protected void write(int b) {
+            target.put((byte) b);
+        }
+
+        @Override
+        protected void write(byte[] bytes,
+                int offset,
+                int length) {
+            target.put(bytes,
+                    offset,
+                    length);
+        }
+    }
+
+    /**
+     * Collects encoded bytes in memory in order to measure content before
+     * writing it to another {@link Utf8Appendable} with
+     * {@link #appendTo(de.richtercloud.validation.tools.Utf8Appendable) }
+     * without encoding it again. The buffer can be reused after
+     * {@link #clear() }.
+     */
+    static final class Buffer extends Utf8Appendable {
+        private byte[] bytes = new byte[128];
+        private int length;
+        private long clearedCharCount;
+
+        private Buffer() {
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            if(minCapacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(minCapacity, bytes.length*2));
+            }
+        }
+
+        @Override
+        protected void write(int b) {
+            ensureCapacity(length+1);
+            bytes[length++] = (byte) b;
+        }
+
+        @Override
+        protected void write(byte[] bytes,
+                int offset,
+                int length) {
+            ensureCapacity(this.length+length);
+            System.arraycopy(bytes,
+                    offset,
+                    this.bytes,
+                    this.length,
+                    length);
+            this.length += length;
+        }
+
+        /**
+         * The number of characters appended since the last call to
+         * {@link #clear() }.
+         */
+        long length() {
+            return getCharCount()-clearedCharCount;
+        }
+
+        void clear() throws IOException {
+            finish();
+            length = 0;
+            clearedCharCount = getCharCount();
+        }
+
+        /**
+         * Writes the collected bytes to {@code target}.
+         *
+         * @param target the target to write to
+         * @throws IOException if writing to {@code target} fails
+         */
+        void appendTo(Utf8Appendable target) throws IOException {
+            finish();
+            target.appendEncoded(bytes,
+                    0,
+                    length,
+                    length());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+/**
+ * Holds the {@link ValidationMetricsListener} which receives measurements of
+ * all {@link CachedFieldRetriever}s and of {@link ValidationTools}.
+ *
+ * No measurements are taken as long as no listener is set which reduces the
+ * overhead to reading a volatile field.
+ *
+ * @author richter
+ */
+public final class ValidationMetrics {
+    private static volatile ValidationMetricsListener listener;
+
+    /**
+     * Sets the listener which receives measurements from now on.
+     *
+     * @param listener the listener or {@code null} in order to stop
+     *     measurements
+     */
+    public static void setListener(ValidationMetricsListener listener) {
+        ValidationMetrics.listener = listener;
+    }
+
+    /**
+     * The current listener.
+     *
+     * @return the listener or {@code null} if none is set
+     */
+    public static ValidationMetricsListener getListener() {
+        return listener;
+    }
+
+    private ValidationMetrics() {
+    }
+}
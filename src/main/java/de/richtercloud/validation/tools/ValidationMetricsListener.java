@@ -0,0 +1,86 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Receives measurements from {@link CachedFieldRetriever} and
+ * {@link ValidationTools} in order to bridge them to a metrics registry.
+ * Register implementations with
+ * {@link ValidationMetrics#setListener(de.richtercloud.validation.tools.ValidationMetricsListener) }.
+ *
+ * All methods do nothing by default so that implementations only need to
+ * override the ones they're interested in. Methods are invoked on the thread
+ * performing the measured operation and therefore have to be thread-safe, fast
+ * and mustn't throw exceptions.
+ *
+ * @author richter
+ */
+public interface ValidationMetricsListener {
+
+    /**
+     * Invoked when {@link CachedFieldRetriever} serves the relevant fields of
+     * {@code clazz} from its cache.
+     *
+     * @param clazz the requested class
+     */
+    default void onFieldCacheHit(Class<?> clazz) {
+        //do nothing
+    }
+
+    /**
+     * Invoked when {@link CachedFieldRetriever} had to compute the relevant
+     * fields of {@code clazz}.
+     *
+     * @param clazz the requested class
+     * @param computationNanos the time the computation took in nanoseconds
+     */
+    default void onFieldCacheMiss(Class<?> clazz,
+            long computationNanos) {
+        //do nothing
+    }
+
+    /**
+     * Invoked after a message has been built by one of the
+     * {@code buildConstraintVioloationMessage} methods of
+     * {@link ValidationTools}.
+     *
+     * @param outputMode the output mode of the message or {@code null} if it
+     *     has been built with a custom {@link ViolationRenderer}
+     * @param violationCount the number of violations written to the message,
+     *     not counting the ones which have been omitted because of limits of
+     *     {@link RenderingOptions}
+     * @param outputLength the number of characters written
+     * @param durationNanos the time building the message took in nanoseconds
+     */
+    default void onMessageBuilt(OutputMode outputMode,
+            int violationCount,
+            long outputLength,
+            long durationNanos) {
+        //do nothing
+    }
+
+    /**
+     * Invoked once for every violation which has been included in a message
+     * built by {@link ValidationTools} which allows to count violations per
+     * constraint.
+     *
+     * @param constraintType the type of the violated constraint annotation
+     */
+    default void onConstraintViolation(Class<? extends Annotation> constraintType) {
+        //do nothing
+    }
+}
@@ -14,24 +14,36 @@
  */
 package de.richtercloud.validation.tools;
 
-import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import javax.validation.ConstraintViolation;
 import javax.validation.ElementKind;
 import javax.validation.Path;
-import javax.validation.Path.Node;
 
 /**
  *
  * @author richter
  */
 public final class ValidationTools {
+    /**
+     * The number of instances which are processed by one task in
+     * {@link #buildConstraintVioloationMessages(java.util.List, de.richtercloud.validation.tools.PathDescriptionCache, java.util.Map, boolean, de.richtercloud.validation.tools.OutputMode, java.util.concurrent.Executor) }.
+     */
+    public static final int BATCH_CHUNK_SIZE = 64;
 
     /**
      * Builds a useful message from multiple constraint violations
@@ -64,9 +76,6 @@ public final class ValidationTools {
     `pathDescriptionMap == null`, but the use cases are just too different in
     order to be expressed by the same variable
     */
-    @SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops",
-        "PMD.AvoidDeeplyNestedIfStmts"
-        })
     public static <T> String buildConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
             Object instance,
             FieldRetriever fieldRetriever,
@@ -74,6 +83,66 @@ public final class ValidationTools {
             FieldNameLambda fieldNameLambda,
             boolean skipPathes,
             OutputMode outputMode) {
+        StringBuilder messageBuilder = new StringBuilder(1000);
+        try {
+            buildConstraintVioloationMessage(messageBuilder,
+                    violations,
+                    instance,
+                    fieldRetriever,
+                    pathDescriptionMap,
+                    fieldNameLambda,
+                    skipPathes,
+                    outputMode);
+        }catch(IOException ex) {
+            throw new AssertionError("StringBuilder doesn't throw IOException",
+                    ex);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * Writes a useful message from multiple constraint violations to
+     * {@code target} without building it in memory first, e.g. into a
+     * {@link java.io.Writer} of a response or a reused {@link StringBuilder}.
+     * The output is identical to the one returned by
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }.
+     *
+     * If an exception is thrown after the validation of arguments, the
+     * content written to {@code target} is undefined.
+     *
+     * @param <T> the type of the validated instance
+     * @param target the target to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param fieldRetriever the field retriever to use to enhance the message
+     *     with field information
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param fieldNameLambda allows to replace field names which are used in
+     *     construction of the description with specified strings (has no effect
+     *     if a description is found in {@code pathDescriptionMap})
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @throws IOException if writing to {@code target} fails
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code fieldRetriever},
+     *     {@code pathDescriptionMap}, {@code fieldNameLambda} or
+     *     {@code outputMode} is {@code null} or {@code violations} is empty
+     */
+    public static <T> void buildConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            FieldRetriever fieldRetriever,
+            Map<Path, String> pathDescriptionMap,
+            FieldNameLambda fieldNameLambda,
+            boolean skipPathes,
+            OutputMode outputMode) throws IOException {
+        if(target == null) {
+            throw new IllegalArgumentException("target mustn't be null");
+        }
         if(violations == null) {
             throw new IllegalArgumentException("violations mustn't be null");
         }
@@ -92,119 +161,876 @@ public final class ValidationTools {
         if(outputMode == null) {
             throw new IllegalArgumentException("outputMode mustn't be null");
         }
+        appendConstraintVioloationMessage(target,
+                violations,
+                instance,
+                new PathPrefixTrie(fieldRetriever,
+                        fieldNameLambda),
+                createUnlimitedOptions(pathDescriptionMap,
+                        skipPathes,
+                        outputMode));
+    }
+
+    /**
+     * Builds a useful message from multiple constraint violations in the
+     * format, with the path descriptions and within the limits of
+     * {@code renderingOptions}. The fields of each distinct path prefix are
+     * resolved once per message. Use
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }
+     * in order to reuse resolved paths between messages.
+     *
+     * @param <T> the type of the validated instance
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param fieldRetriever the field retriever to use to enhance the message
+     *     with field information
+     * @param fieldNameLambda allows to replace field names which are used in
+     *     construction of the description with specified strings (has no effect
+     *     if a description is provided by the path descriptions of
+     *     {@code renderingOptions})
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @return the built message
+     * @throws IllegalArgumentException if either of {@code violations},
+     *     {@code fieldRetriever}, {@code fieldNameLambda} or
+     *     {@code renderingOptions} is {@code null} or {@code violations} is
+     *     empty
+     */
+    public static <T> String buildConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda,
+            RenderingOptions renderingOptions) {
         StringBuilder messageBuilder = new StringBuilder(1000);
-        if(outputMode == OutputMode.HTML_HTML) {
-            messageBuilder.append("<html>");
-        }else if(outputMode == OutputMode.HTML_DIV) {
-            messageBuilder.append("<div>");
-        }
-        messageBuilder.append("The following constraints are violated:");
-        if(outputMode == OutputMode.HTML_HTML
-                || outputMode == OutputMode.HTML_DIV) {
-            messageBuilder.append("<br/>");
-        }else {
-            messageBuilder.append('\n');
-        }
-        String pathString;
-        for(ConstraintViolation<?> violation : violations) {
-            if(!skipPathes) {
-                pathString = pathDescriptionMap.get(violation.getPropertyPath());
-                if(pathString == null) {
-                    StringBuilder pathStringBuilder = new StringBuilder(1024);
-                    Class<?> relativeFieldRoot = instance.getClass();
-                    List<Path.Node> propertyPathNodes = Lists.newArrayList(violation.getPropertyPath());
-                        //need a second view on property path because Node.isInIterable
-                        //is only true after descending into the collection
-                    int index = 0;
-                    for(Node propertyPathNode : violation.getPropertyPath()) {
-                        if(propertyPathNode.getKind() != ElementKind.PROPERTY
-                                && propertyPathNode.getKind() != ElementKind.BEAN) {
-                            throw new IllegalArgumentException(String.format("only "
-                                    + "kinds %s and %s are supported",
-                                    ElementKind.PROPERTY,
-                                    ElementKind.BEAN));
-                        }
-                        //both PropertyNode and BeanNode (subclasses of Node) don't
-                        //provide more information than Node
-                        Field violationField = null;
-                        if(propertyPathNode.getKind() == ElementKind.PROPERTY) {
-                            String violationFieldName = propertyPathNode.getName();
-                            List<Field> classFields = fieldRetriever.retrieveRelevantFields(relativeFieldRoot);
-                            for(Field classField : classFields) {
-                                if(classField.getName().equals(violationFieldName)) {
-                                    violationField = classField;
-                                    break;
-                                }
-                            }
-                            if(violationField == null) {
-                                throw new IllegalArgumentException("validation violoation constraint on field which isn't part of the validated instance");
-                            }
-                            if(index+1 < propertyPathNodes.size()) {
-                                if(!propertyPathNodes.get(index+1).isInIterable()) {
-                                    relativeFieldRoot = violationField.getType();
-                                }else {
-                                    //this can be handled well with Validation API 2.x which
-                                    //requires Java EE 8 (assuming running a Java EE
-                                    //environment) which is painful to setup on most
-                                    //Java EE 8 servers
-                                    if(!(violationField.getGenericType() instanceof ParameterizedType)) {
-                                        throw new IllegalArgumentException("all collections involving validation need to be parameterized");
-                                    }
-                                    ParameterizedType violationFieldParameterizedType = (ParameterizedType) violationField.getGenericType();
-                                    if(violationFieldParameterizedType.getActualTypeArguments().length != 1) {
-                                        throw new IllegalArgumentException("only collections with one parameterized type are supported");
-                                    }
-                                    Type violoationFieldOnlyGenericType = violationFieldParameterizedType.getActualTypeArguments()[0];
-                                    if(!(violoationFieldOnlyGenericType instanceof Class)) {
-                                        throw new IllegalArgumentException(String.format(
-                                                "the collection's parameterized type has "
-                                                        + "to be a class (as opposed to "
-                                                        + "other possibilites for generic "
-                                                        + "types) (was %s)",
-                                                violoationFieldOnlyGenericType));
-                                    }
-                                    relativeFieldRoot = (Class<?>) violoationFieldOnlyGenericType;
-                                }
-                            }
-                            String specialFieldName = fieldNameLambda.getFieldName(violationField);
-                            String fieldName;
-                            if(specialFieldName != null) {
-                                fieldName = specialFieldName;
-                            }else {
-                                fieldName = violationField.getName();
-                            }
-                            pathStringBuilder.append(fieldName);
-                            pathStringBuilder.append(": ");
-                                //adding : between property names is fine and makes
-                                //descriptions appear nicer than when separated with .
-                            index += 1;
-                        }
-                        //in case propertyPath.kind  == ElementKind.BEAN
-                        //do nothing since it's fine if either the leaf is a
-                        //leaf node with all previous pathes explaining the path
-                        //or the violoation refers to the root bean in which
-                        //case a message without path would be displayed which
-                        //is very comprehensive as well
+        try {
+            buildConstraintVioloationMessage(messageBuilder,
+                    violations,
+                    instance,
+                    fieldRetriever,
+                    fieldNameLambda,
+                    renderingOptions);
+        }catch(IOException ex) {
+            throw new AssertionError("StringBuilder doesn't throw IOException",
+                    ex);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * Writes a useful message from multiple constraint violations to
+     * {@code target} like
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, de.richtercloud.validation.tools.FieldNameLambda, de.richtercloud.validation.tools.RenderingOptions) }.
+     *
+     * If an exception is thrown after the validation of arguments, the
+     * content written to {@code target} is undefined.
+     *
+     * @param <T> the type of the validated instance
+     * @param target the target to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param fieldRetriever the field retriever to use to enhance the message
+     *     with field information
+     * @param fieldNameLambda allows to replace field names which are used in
+     *     construction of the description with specified strings (has no effect
+     *     if a description is provided by the path descriptions of
+     *     {@code renderingOptions})
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @throws IOException if writing to {@code target} fails
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code fieldRetriever}, {@code fieldNameLambda}
+     *     or {@code renderingOptions} is {@code null} or {@code violations} is
+     *     empty
+     */
+    public static <T> void buildConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda,
+            RenderingOptions renderingOptions) throws IOException {
+        if(target == null) {
+            throw new IllegalArgumentException("target mustn't be null");
+        }
+        if(violations == null) {
+            throw new IllegalArgumentException("violations mustn't be null");
+        }
+        if(violations.isEmpty()) {
+            throw new IllegalArgumentException("violations mustn't be empty");
+        }
+        if(fieldRetriever == null) {
+            throw new IllegalArgumentException("fieldRetriever mustn't be null");
+        }
+        if(fieldNameLambda == null) {
+            throw new IllegalArgumentException("fieldNameLambda mustn't be null");
+        }
+        if(renderingOptions == null) {
+            throw new IllegalArgumentException("renderingOptions mustn't be null");
+        }
+        appendConstraintVioloationMessage(target,
+                violations,
+                instance,
+                new PathPrefixTrie(fieldRetriever,
+                        fieldNameLambda),
+                renderingOptions);
+    }
+
+    /**
+     * Builds a useful message from multiple constraint violations and resolves
+     * the description of property paths through {@code pathDescriptionCache}
+     * which allows to skip reflection for recurring paths.
+     *
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @return the built message
+     * @throws IllegalArgumentException if either of {@code violations},
+     *     {@code pathDescriptionCache}, {@code pathDescriptionMap} or
+     *     {@code outputMode} is {@code null} or {@code violations} is empty
+     */
+    public static <T> String buildConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        StringBuilder messageBuilder = new StringBuilder(1000);
+        try {
+            buildConstraintVioloationMessage(messageBuilder,
+                    violations,
+                    instance,
+                    pathDescriptionCache,
+                    pathDescriptionMap,
+                    skipPathes,
+                    outputMode);
+        }catch(IOException ex) {
+            throw new AssertionError("StringBuilder doesn't throw IOException",
+                    ex);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * Writes a useful message from multiple constraint violations to
+     * {@code target} and resolves the description of property paths through
+     * {@code pathDescriptionCache}.
+     *
+     * If an exception is thrown after the validation of arguments, the
+     * content written to {@code target} is undefined.
+     *
+     * @param <T> the type of the validated instance
+     * @param target the target to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @throws IOException if writing to {@code target} fails
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code pathDescriptionCache},
+     *     {@code pathDescriptionMap} or {@code outputMode} is {@code null} or
+     *     {@code violations} is empty
+     */
+    public static <T> void buildConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) throws IOException {
+        if(pathDescriptionMap == null) {
+            throw new IllegalArgumentException("pathDescriptionMap mustn't be null");
+        }
+        if(outputMode == null) {
+            throw new IllegalArgumentException("outputMode mustn't be null");
+        }
+        buildConstraintVioloationMessage(target,
+                violations,
+                instance,
+                pathDescriptionCache,
+                createUnlimitedOptions(pathDescriptionMap,
+                        skipPathes,
+                        outputMode));
+    }
+
+    /**
+     * Builds a useful message from multiple constraint violations in the
+     * format, with the path descriptions and within the limits of
+     * {@code renderingOptions} and resolves the description of property paths
+     * through {@code pathDescriptionCache}. Aggregation and limits allow to
+     * avoid messages of several megabytes for violations of all elements of a
+     * large collection.
+     *
+     * @param <T> the type of the validated instance
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @return the built message
+     * @throws IllegalArgumentException if either of {@code violations},
+     *     {@code pathDescriptionCache} or {@code renderingOptions} is
+     *     {@code null} or {@code violations} is empty
+     */
+    public static <T> String buildConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            RenderingOptions renderingOptions) {
+        StringBuilder messageBuilder = new StringBuilder(1000);
+        try {
+            buildConstraintVioloationMessage(messageBuilder,
+                    violations,
+                    instance,
+                    pathDescriptionCache,
+                    renderingOptions);
+        }catch(IOException ex) {
+            throw new AssertionError("StringBuilder doesn't throw IOException",
+                    ex);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * Writes a useful message from multiple constraint violations to
+     * {@code target} like
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }.
+     *
+     * If an exception is thrown after the validation of arguments, the
+     * content written to {@code target} is undefined.
+     *
+     * @param <T> the type of the validated instance
+     * @param target the target to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @throws IOException if writing to {@code target} fails
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code pathDescriptionCache} or
+     *     {@code renderingOptions} is {@code null} or {@code violations} is
+     *     empty
+     */
+    public static <T> void buildConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            RenderingOptions renderingOptions) throws IOException {
+        if(target == null) {
+            throw new IllegalArgumentException("target mustn't be null");
+        }
+        if(violations == null) {
+            throw new IllegalArgumentException("violations mustn't be null");
+        }
+        if(violations.isEmpty()) {
+            throw new IllegalArgumentException("violations mustn't be empty");
+        }
+        if(pathDescriptionCache == null) {
+            throw new IllegalArgumentException("pathDescriptionCache mustn't be null");
+        }
+        if(renderingOptions == null) {
+            throw new IllegalArgumentException("renderingOptions mustn't be null");
+        }
+        appendConstraintVioloationMessage(target,
+                violations,
+                instance,
+                pathDescriptionCache,
+                renderingOptions);
+    }
+
+    /**
+     * Writes the UTF-8 encoding of the message built by
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }
+     * to {@code target}. Header, footer, line separators and HTML wrappers as
+     * well as path descriptions cached in {@code pathDescriptionCache} are
+     * kept encoded and written without encoding them again, only violation
+     * messages and uncached parts are encoded. Bytes are written in chunks of
+     * up to 8 KiB; {@code target} is neither flushed nor closed.
+     *
+     * If an exception is thrown after the validation of arguments, the
+     * content written to {@code target} is undefined.
+     *
+     * @param <T> the type of the validated instance
+     * @param target the stream to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @throws IOException if writing to {@code target} fails
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code pathDescriptionCache} or
+     *     {@code renderingOptions} is {@code null} or {@code violations} is
+     *     empty
+     */
+    public static <T> void encodeConstraintVioloationMessage(OutputStream target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            RenderingOptions renderingOptions) throws IOException {
+        if(target == null) {
+            throw new IllegalArgumentException("target mustn't be null");
+        }
+        Utf8Appendable utf8Target = Utf8Appendable.of(target);
+        buildConstraintVioloationMessage(utf8Target,
+                violations,
+                instance,
+                pathDescriptionCache,
+                renderingOptions);
+        utf8Target.finish();
+    }
+
+    /**
+     * Writes the UTF-8 encoding of the message into {@code target} starting at
+     * its position like
+     * {@link #encodeConstraintVioloationMessage(java.io.OutputStream, java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }
+     * does without intermediate copies. The position of {@code target} is
+     * advanced by the number of written bytes. Use
+     * {@link RenderingOptions} with a character limit in order to make sure
+     * that the message fits into a buffer of a fixed size (a character takes
+     * up to 3 bytes).
+     *
+     * @param <T> the type of the validated instance
+     * @param target the buffer to write to
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param renderingOptions the format, path descriptions, aggregation and
+     *     limits to apply
+     * @throws java.nio.BufferOverflowException if the message doesn't fit into
+     *     the remaining bytes of {@code target} in which case the content
+     *     and position of {@code target} are undefined
+     * @throws java.nio.ReadOnlyBufferException if {@code target} is read-only
+     * @throws IllegalArgumentException if either of {@code target},
+     *     {@code violations}, {@code pathDescriptionCache} or
+     *     {@code renderingOptions} is {@code null} or {@code violations} is
+     *     empty
+     */
+    public static <T> void encodeConstraintVioloationMessage(ByteBuffer target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            RenderingOptions renderingOptions) {
+        if(target == null) {
+            throw new IllegalArgumentException("target mustn't be null");
+        }
+        Utf8Appendable utf8Target = Utf8Appendable.of(target);
+        try {
+            buildConstraintVioloationMessage(utf8Target,
+                    violations,
+                    instance,
+                    pathDescriptionCache,
+                    renderingOptions);
+            utf8Target.finish();
+        }catch(IOException ex) {
+            throw new AssertionError("ByteBuffer doesn't throw IOException",
+                    ex);
+        }
+    }
+
+    /**
+     * Captures everything needed to build the message of
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }
+     * without building it. The message is built when the returned
+     * {@link LazyConstraintViolationMessage} is read for the first time which
+     * avoids the cost of path resolution and string building for messages
+     * which are never read, e.g. messages of exceptions which are caught and
+     * discarded or of disabled log statements.
+     *
+     * The arguments are referenced and not copied and therefore mustn't be
+     * modified until the message has been read.
+     *
+     * @param <T> the type of the validated instance
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param fieldRetriever the field retriever to use to enhance the message
+     *     with field information
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param fieldNameLambda allows to replace field names which are used in
+     *     construction of the description with specified strings (has no effect
+     *     if a description is found in {@code pathDescriptionMap})
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @return the lazily built message
+     * @throws IllegalArgumentException if either of {@code violations},
+     *     {@code fieldRetriever}, {@code pathDescriptionMap},
+     *     {@code fieldNameLambda} or {@code outputMode} is {@code null} or
+     *     {@code violations} is empty
+     */
+    public static <T> LazyConstraintViolationMessage buildLazyConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            FieldRetriever fieldRetriever,
+            Map<Path, String> pathDescriptionMap,
+            FieldNameLambda fieldNameLambda,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        if(violations == null) {
+            throw new IllegalArgumentException("violations mustn't be null");
+        }
+        if(violations.isEmpty()) {
+            throw new IllegalArgumentException("violations mustn't be empty");
+        }
+        if(fieldRetriever == null) {
+            throw new IllegalArgumentException("fieldRetriever mustn't be null");
+        }
+        if(pathDescriptionMap == null) {
+            throw new IllegalArgumentException("pathDescriptionMap mustn't be null");
+        }
+        if(fieldNameLambda == null) {
+            throw new IllegalArgumentException("fieldNameLambda mustn't be null");
+        }
+        if(outputMode == null) {
+            throw new IllegalArgumentException("outputMode mustn't be null");
+        }
+        return new LazyConstraintViolationMessage(() -> renderConstraintVioloationMessage(violations,
+                instance,
+                new PathPrefixTrie(fieldRetriever,
+                        fieldNameLambda),
+                createUnlimitedOptions(pathDescriptionMap,
+                        skipPathes,
+                        outputMode)));
+    }
+
+    /**
+     * Captures everything needed to build the message of
+     * {@link #buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, java.util.Map, boolean, de.richtercloud.validation.tools.OutputMode) }
+     * without building it. See
+     * {@link #buildLazyConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.FieldRetriever, java.util.Map, de.richtercloud.validation.tools.FieldNameLambda, boolean, de.richtercloud.validation.tools.OutputMode) }
+     * for details.
+     *
+     * @param <T> the type of the validated instance
+     * @param violations the detected constraint violations to build the message
+     *     from
+     * @param instance the instance which causes the constaint violation(s)
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which provides the field retriever and field name lambda to use
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @return the lazily built message
+     * @throws IllegalArgumentException if either of {@code violations},
+     *     {@code pathDescriptionCache}, {@code pathDescriptionMap} or
+     *     {@code outputMode} is {@code null} or {@code violations} is empty
+     */
+    public static <T> LazyConstraintViolationMessage buildLazyConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        if(violations == null) {
+            throw new IllegalArgumentException("violations mustn't be null");
+        }
+        if(violations.isEmpty()) {
+            throw new IllegalArgumentException("violations mustn't be empty");
+        }
+        if(pathDescriptionCache == null) {
+            throw new IllegalArgumentException("pathDescriptionCache mustn't be null");
+        }
+        if(pathDescriptionMap == null) {
+            throw new IllegalArgumentException("pathDescriptionMap mustn't be null");
+        }
+        if(outputMode == null) {
+            throw new IllegalArgumentException("outputMode mustn't be null");
+        }
+        return new LazyConstraintViolationMessage(() -> renderConstraintVioloationMessage(violations,
+                instance,
+                pathDescriptionCache,
+                createUnlimitedOptions(pathDescriptionMap,
+                        skipPathes,
+                        outputMode)));
+    }
+
+    private static <T> String renderConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionResolver pathDescriptionResolver,
+            RenderingOptions renderingOptions) {
+        StringBuilder messageBuilder = new StringBuilder(1000);
+        try {
+            appendConstraintVioloationMessage(messageBuilder,
+                    violations,
+                    instance,
+                    pathDescriptionResolver,
+                    renderingOptions);
+        }catch(IOException ex) {
+            throw new AssertionError("StringBuilder doesn't throw IOException",
+                    ex);
+        }
+        return messageBuilder.toString();
+    }
+
+    /**
+     * Builds the messages for many instances in parallel on the common
+     * {@link ForkJoinPool}. See
+     * {@link #buildConstraintVioloationMessages(java.util.List, de.richtercloud.validation.tools.PathDescriptionCache, java.util.Map, boolean, de.richtercloud.validation.tools.OutputMode, java.util.concurrent.Executor) }
+     * for details.
+     *
+     * @param instanceViolations the instances and their violations
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which is shared by all tasks
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @return the built messages in the order of {@code instanceViolations}
+     */
+    public static List<String> buildConstraintVioloationMessages(List<? extends InstanceViolations<?>> instanceViolations,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        return buildConstraintVioloationMessages(instanceViolations,
+                pathDescriptionCache,
+                pathDescriptionMap,
+                skipPathes,
+                outputMode,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the messages for many instances in parallel on
+     * {@code executor}, e.g. a dedicated {@link ForkJoinPool} or an executor
+     * using virtual threads. All tasks share {@code pathDescriptionCache} and
+     * with it its field retriever. The instances are split into chunks of
+     * {@link #BATCH_CHUNK_SIZE} in order to keep the scheduling overhead low
+     * for large batches.
+     *
+     * {@code pathDescriptionMap} is read concurrently and mustn't be modified
+     * during the call.
+     *
+     * @param instanceViolations the instances and their violations
+     * @param pathDescriptionCache the cache to resolve path descriptions with
+     *     which is shared by all tasks
+     * @param pathDescriptionMap allows to replace the description constructed
+     *     from paths with customized messages
+     * @param skipPathes if {@code true} all pathes are omitted and violation
+     *     messages only are written in a new line
+     * @param outputMode how to generate the output (see {@link OutputMode} for
+     *     details
+     * @param executor the executor to run the tasks on
+     * @return the built messages in the order of {@code instanceViolations}
+     * @throws IllegalArgumentException if either of
+     *     {@code instanceViolations}, {@code pathDescriptionCache},
+     *     {@code pathDescriptionMap}, {@code outputMode} or {@code executor} is
+     *     {@code null} or {@code instanceViolations} contains {@code null} or
+     *     if building a message fails with it
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public static List<String> buildConstraintVioloationMessages(List<? extends InstanceViolations<?>> instanceViolations,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode,
+            Executor executor) {
+        if(instanceViolations == null) {
+            throw new IllegalArgumentException("instanceViolations mustn't be null");
+        }
+        if(instanceViolations.contains(null)) {
+            throw new IllegalArgumentException("instanceViolations mustn't contain null");
+        }
+        if(pathDescriptionCache == null) {
+            throw new IllegalArgumentException("pathDescriptionCache mustn't be null");
+        }
+        if(pathDescriptionMap == null) {
+            throw new IllegalArgumentException("pathDescriptionMap mustn't be null");
+        }
+        if(outputMode == null) {
+            throw new IllegalArgumentException("outputMode mustn't be null");
+        }
+        if(executor == null) {
+            throw new IllegalArgumentException("executor mustn't be null");
+        }
+        //copy in order to allow fast random access from all tasks
+        InstanceViolations<?>[] instanceViolationsArray = instanceViolations.toArray(new InstanceViolations<?>[instanceViolations.size()]);
+        String[] retValue = new String[instanceViolationsArray.length];
+        List<CompletableFuture<Void>> chunkFutures = new ArrayList<>(instanceViolationsArray.length / BATCH_CHUNK_SIZE + 1);
+        for(int chunkStart = 0; chunkStart < instanceViolationsArray.length; chunkStart += BATCH_CHUNK_SIZE) {
+            int chunkStart0 = chunkStart;
+            int chunkEnd = Math.min(chunkStart + BATCH_CHUNK_SIZE,
+                    instanceViolationsArray.length);
+            chunkFutures.add(CompletableFuture.runAsync(() -> {
+                    for(int i = chunkStart0; i < chunkEnd; i++) {
+                        retValue[i] = buildConstraintVioloationMessage(instanceViolationsArray[i],
+                                pathDescriptionCache,
+                                pathDescriptionMap,
+                                skipPathes,
+                                outputMode);
                     }
-                    pathString = pathStringBuilder.toString();
-                }
-                messageBuilder.append(pathString);
+                },
+                    executor));
+        }
+        try {
+            CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture<?>[chunkFutures.size()])).join();
+        }catch(CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if(ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
             }
-            messageBuilder.append(violation.getMessage());
-            if(outputMode == OutputMode.HTML_HTML
-                    || outputMode == OutputMode.HTML_DIV) {
-                messageBuilder.append("<br/>");
+            throw ex;
+        }
+        //the completion of all futures guarantees the visibility of all
+        //elements of retValue
+        return Arrays.asList(retValue);
+    }
+
+    private static <T> String buildConstraintVioloationMessage(InstanceViolations<T> instanceViolations,
+            PathDescriptionCache pathDescriptionCache,
+            Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        return buildConstraintVioloationMessage(instanceViolations.getViolations(),
+                instanceViolations.getInstance(),
+                pathDescriptionCache,
+                pathDescriptionMap,
+                skipPathes,
+                outputMode);
+    }
+
+    /**
+     * Creates the options of the methods which don't take rendering options.
+     */
+    private static RenderingOptions createUnlimitedOptions(Map<Path, String> pathDescriptionMap,
+            boolean skipPathes,
+            OutputMode outputMode) {
+        return new RenderingOptions(outputMode,
+                PathDescriptions.forPaths(pathDescriptionMap),
+                skipPathes,
+                false, //aggregate
+                RenderingOptions.UNLIMITED, //maxLines
+                RenderingOptions.UNLIMITED //maxCharacters
+        );
+    }
+
+    /**
+     * Writes the message and reports it to the listener of
+     * {@link ValidationMetrics} if one is set. Only the violations which have
+     * been written are reported if limits of {@code renderingOptions} stopped
+     * the message early.
+     */
+    private static <T> void appendConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionResolver pathDescriptionResolver,
+            RenderingOptions renderingOptions) throws IOException {
+        ValidationMetricsListener metricsListener = ValidationMetrics.getListener();
+        if(metricsListener == null) {
+            appendUnmeasuredConstraintVioloationMessage(target,
+                    violations,
+                    instance,
+                    pathDescriptionResolver,
+                    renderingOptions,
+                    null //writtenViolations
+            );
+            return;
+        }
+        List<ConstraintViolation<?>> writtenViolations = new ArrayList<>(violations.size());
+        long start = System.nanoTime();
+        long outputLength;
+        if(target instanceof Utf8Appendable) {
+            //counts characters itself and mustn't be wrapped in order to
+            //receive pre-encoded fragments
+            Utf8Appendable utf8Target = (Utf8Appendable) target;
+            long charCountBefore = utf8Target.getCharCount();
+            appendUnmeasuredConstraintVioloationMessage(utf8Target,
+                    violations,
+                    instance,
+                    pathDescriptionResolver,
+                    renderingOptions,
+                    writtenViolations);
+            outputLength = utf8Target.getCharCount() - charCountBefore;
+        }else {
+            CountingAppendable countingTarget = new CountingAppendable(target);
+            appendUnmeasuredConstraintVioloationMessage(countingTarget,
+                    violations,
+                    instance,
+                    pathDescriptionResolver,
+                    renderingOptions,
+                    writtenViolations);
+            outputLength = countingTarget.getCount();
+        }
+        long duration = System.nanoTime() - start;
+        metricsListener.onMessageBuilt(renderingOptions.getOutputMode(),
+                writtenViolations.size(),
+                outputLength,
+                duration);
+        for(ConstraintViolation<?> violation : writtenViolations) {
+            metricsListener.onConstraintViolation(violation.getConstraintDescriptor().getAnnotation().annotationType());
+        }
+    }
+
+    /**
+     * Writes the message and adds the written violations to
+     * {@code writtenViolations} unless it's {@code null}.
+     */
+    /*
+    internal implementation notes:
+    - violations are written to a buffer first if the number of characters is
+    limited because the length of a violation isn't known before its path has
+    been resolved; otherwise they're written to target directly in order to
+    avoid copying
+    - if target is a Utf8Appendable, the buffer is a Utf8Appendable.Buffer which
+    receives pre-encoded fragments as bytes and passes its bytes to target
+    without encoding them again, so that the encode methods don't lose the
+    pre-encoded fragments when a character limit is set; other targets receive
+    characters anyway, so a StringBuilder is used
+    - the iteration stops as soon as a limit is reached so that paths of
+    skipped violations are never resolved
+    - aggregated groups only keep their violations if writtenViolations is
+    requested in order to not keep a reference per violation otherwise
+    */
+    private static <T> void appendUnmeasuredConstraintVioloationMessage(Appendable target,
+            Set<ConstraintViolation<T>> violations,
+            Object instance,
+            PathDescriptionResolver pathDescriptionResolver,
+            RenderingOptions renderingOptions,
+            List<ConstraintViolation<?>> writtenViolations) throws IOException {
+        ViolationRenderer renderer = renderingOptions.getRenderer();
+        List<ViolationGroup> violationGroups = renderingOptions.isAggregate()
+                ? aggregateViolations(violations,
+                        writtenViolations != null)
+                : null;
+        renderer.appendHeader(target);
+        Utf8Appendable.Buffer violationBuffer = renderingOptions.isCharacterLimited()
+                && target instanceof Utf8Appendable
+                ? Utf8Appendable.buffer()
+                : null;
+        StringBuilder violationBuilder = renderingOptions.isCharacterLimited()
+                && violationBuffer == null
+                ? new StringBuilder(128)
+                : null;
+        RenderedViolation renderedViolation = new RenderedViolation(instance,
+                pathDescriptionResolver,
+                renderingOptions.getPathDescriptions(),
+                renderingOptions.isSkipPathes(),
+                violationGroups != null);
+        Iterator<ConstraintViolation<T>> violationIterator = violations.iterator();
+        Iterator<ViolationGroup> violationGroupIterator = violationGroups != null
+                ? violationGroups.iterator()
+                : null;
+        int entryCount = violationGroups != null
+                ? violationGroups.size()
+                : violations.size();
+        int writtenEntries = 0;
+        int writtenViolationCount = 0;
+        long writtenCharacters = 0;
+        while(writtenEntries < entryCount
+                && writtenEntries < renderingOptions.getMaxLines()) {
+            ViolationGroup violationGroup = null;
+            ConstraintViolation<T> violation = null;
+            if(violationGroupIterator != null) {
+                violationGroup = violationGroupIterator.next();
+                renderedViolation.reset(violationGroup.getViolation(),
+                        violationGroup.getCount());
             }else {
-                messageBuilder.append('\n');
+                violation = violationIterator.next();
+                renderedViolation.reset(violation,
+                        1);
+            }
+            if(violationBuffer != null) {
+                violationBuffer.clear();
+                renderer.appendViolation(violationBuffer,
+                        renderedViolation);
+                long violationLength = violationBuffer.length();
+                if(writtenCharacters+violationLength > renderingOptions.getMaxCharacters()) {
+                    break;
+                }
+                if(writtenEntries > 0) {
+                    renderer.appendSeparator(target);
+                }
+                violationBuffer.appendTo((Utf8Appendable) target);
+                writtenCharacters += violationLength;
+            }else if(violationBuilder != null) {
+                violationBuilder.setLength(0);
+                renderer.appendViolation(violationBuilder,
+                        renderedViolation);
+                if(writtenCharacters+violationBuilder.length() > renderingOptions.getMaxCharacters()) {
+                    break;
+                }
+                if(writtenEntries > 0) {
+                    renderer.appendSeparator(target);
+                }
+                target.append(violationBuilder);
+                writtenCharacters += violationBuilder.length();
+            }else {
+                if(writtenEntries > 0) {
+                    renderer.appendSeparator(target);
+                }
+                renderer.appendViolation(target,
+                        renderedViolation);
+            }
+            writtenEntries += 1;
+            writtenViolationCount += renderedViolation.getCount();
+            if(writtenViolations != null) {
+                if(violationGroup != null) {
+                    writtenViolations.addAll(violationGroup.getViolations());
+                }else {
+                    writtenViolations.add(violation);
+                }
             }
         }
-        messageBuilder.append("Fix the corresponding values in the components.");
-        if(outputMode == OutputMode.HTML_HTML) {
-            messageBuilder.append("</html>");
-        }else if(outputMode == OutputMode.HTML_DIV) {
-            messageBuilder.append("</div>");
+        renderer.appendFooter(target,
+                violations.size()-writtenViolationCount);
+    }
+
+    /**
+     * Groups {@code violations} by their path with indices and keys of
+     * iterable nodes ignored and their message in the order of the first
+     * occurrence of each group. The groups keep all of their violations if
+     * {@code keepViolations} is {@code true}.
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    private static <T> List<ViolationGroup> aggregateViolations(Set<ConstraintViolation<T>> violations,
+            boolean keepViolations) {
+        Map<String, ViolationGroup> violationGroups = new LinkedHashMap<>();
+        for(ConstraintViolation<T> violation : violations) {
+            //node names can't contain line breaks, so the key is unique
+            String key = PathDescriptionCache.normalizePath(violation.getPropertyPath())
+                    + '\n'
+                    + violation.getMessage();
+            ViolationGroup violationGroup = violationGroups.get(key);
+            if(violationGroup == null) {
+                violationGroups.put(key,
+                        new ViolationGroup(violation,
+                                keepViolations));
+            }else {
+                violationGroup.add(violation);
+            }
         }
-        return messageBuilder.toString();
+        return new ArrayList<>(violationGroups.values());
     }
 
     public static <T> String buildConstraintVioloationMessage(Set<ConstraintViolation<T>> violations,
@@ -263,6 +1089,76 @@ public final class ValidationTools {
                 outputMode);
     }
 
+    /**
+     * Resolves the field names of {@code path} starting at {@code rootClass}
+     * and passes them to {@code fieldNameConsumer}.
+     *
+     * @param rootClass the class of the validated instance
+     * @param path the property path to describe
+     * @param fieldRetriever the field retriever to use
+     * @param fieldNameLambda the field name lambda to use
+     * @param fieldNameConsumer the consumer to pass field names to
+     * @throws IOException if {@code fieldNameConsumer} throws it
+     * @throws IllegalArgumentException if {@code path} contains nodes of other
+     *     kinds than {@link ElementKind#PROPERTY} and {@link ElementKind#BEAN}
+     *     or refers to fields which can't be resolved
+     */
+    static void resolveFieldNames(Class<?> rootClass,
+            Path path,
+            FieldRetriever fieldRetriever,
+            FieldNameLambda fieldNameLambda,
+            FieldNameConsumer fieldNameConsumer) throws IOException {
+        //a trie for a single path only holds its prefixes and resolves each
+        //field once like a trie shared between the paths of a message
+        new PathPrefixTrie(fieldRetriever,
+                fieldNameLambda).resolveFieldNames(rootClass,
+                        path,
+                        fieldNameConsumer);
+    }
+
+    /**
+     * A violation which represents all violations with the same normalized
+     * path and message.
+     */
+    private static final class ViolationGroup {
+        private final ConstraintViolation<?> violation;
+        private int count = 1;
+        /**
+         * All violations of the group or {@code null} if they're not kept.
+         */
+        private final List<ConstraintViolation<?>> violations;
+
+        ViolationGroup(ConstraintViolation<?> violation,
+                boolean keepViolations) {
+            this.violation = violation;
+            if(keepViolations) {
+                this.violations = new ArrayList<>(1);
+                this.violations.add(violation);
+            }else {
+                this.violations = null;
+            }
+        }
+
+        ConstraintViolation<?> getViolation() {
+            return violation;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        List<ConstraintViolation<?>> getViolations() {
+            return violations;
+        }
+
+        void add(ConstraintViolation<?> violation) {
+            count += 1;
+            if(violations != null) {
+                violations.add(violation);
+            }
+        }
+    }
+
     private ValidationTools() {
     }
 }
@@ -0,0 +1,71 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import java.io.IOException;
+
+/**
+ * Renders the message built by
+ * {@link ValidationTools#buildConstraintVioloationMessage(java.util.Set, java.lang.Object, de.richtercloud.validation.tools.PathDescriptionCache, de.richtercloud.validation.tools.RenderingOptions) }
+ * in a specific format which is passed with
+ * {@link RenderingOptions#RenderingOptions(de.richtercloud.validation.tools.ViolationRenderer, de.richtercloud.validation.tools.PathDescriptions, boolean, boolean, int, int) }. The message consists of the header, the violations
+ * separated by the separator and the footer. Each {@link OutputMode} is
+ * mapped to a built-in renderer, see {@link OutputMode#getRenderer() }.
+ * Simple formats can be expressed with a {@link TemplateViolationRenderer}.
+ *
+ * Renderers are shared between threads and should be stateless.
+ *
+ * @author richter
+ */
+public interface ViolationRenderer {
+
+    /**
+     * Writes everything in front of the first violation.
+     *
+     * @param target the target to write to
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendHeader(Appendable target) throws IOException;
+
+    /**
+     * Writes one violation or one group of aggregated violations.
+     *
+     * @param target the target to write to
+     * @param violation the violation to write which is only valid during the
+     *     call
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendViolation(Appendable target,
+            RenderedViolation violation) throws IOException;
+
+    /**
+     * Writes the separator between two violations.
+     *
+     * @param target the target to write to
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendSeparator(Appendable target) throws IOException;
+
+    /**
+     * Writes everything after the last violation.
+     *
+     * @param target the target to write to
+     * @param omittedViolationCount the number of violations which haven't
+     *     been written because of the limits of {@link RenderingOptions}
+     * @throws IOException if writing to {@code target} fails
+     */
+    void appendFooter(Appendable target,
+            int omittedViolationCount) throws IOException;
+}
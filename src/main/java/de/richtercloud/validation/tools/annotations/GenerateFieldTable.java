@@ -0,0 +1,37 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+import java.lang.annotation.Target;
+
+/**
+ * Causes
+ * {@link de.richtercloud.validation.tools.processor.FieldTableProcessor} to
+ * generate a {@link de.richtercloud.validation.tools.FieldTable} for the
+ * annotated class at compile time which is used by
+ * {@link de.richtercloud.validation.tools.GeneratedFieldRetriever} in order to
+ * avoid discovering relevant fields with reflection.
+ *
+ * @author richter
+ */
+@Target( { ElementType.TYPE })
+@Retention(CLASS)
+@Documented
+public @interface GenerateFieldTable {
+}
@@ -0,0 +1,204 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.validator.routines.DomainValidator;
+import org.apache.commons.validator.routines.EmailValidator;
+
+/**
+ * A single pass scanner for email addresses which gives the same results as
+ * {@code EmailValidator.getInstance(false)} of commons-validator, but handles
+ * the common case of a plain ASCII address without the regular expressions
+ * used by commons-validator.
+ *
+ * Addresses which contain whitespace, control characters, quotes, brackets or
+ * more than one {@code @} are handed over to commons-validator since its
+ * regular expressions treat them in ways which aren't worth reproducing.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- for a string consisting only of printable ASCII characters except
+quotes and brackets with exactly one @ the regular expressions of
+EmailValidator reduce to:
+  - the user part is a non-empty sequence of non-empty words separated by
+single dots whose characters are printable ASCII except ()<>@,;:\".[]
+  - the domain part consists of at least two non-empty labels separated by
+single dots, each starting and ending with a letter or digit and containing
+only letters, digits and hyphens (DomainValidator doesn't enforce a length
+limit for labels)
+  - the last label consists of at least two letters and is a known TLD
+- non-ASCII characters are rejected by EmailValidator before anything else,
+so no fallback is necessary for them
+- once an invalid character or an empty word or label has been found before
+any character requiring the fallback, the address is invalid no matter what
+follows: the user part of EmailValidator always extends at least to the first
+@ and a quote can only start a quoted word at the beginning of a word
+- the TLD check is delegated to DomainValidator in order to keep the TLD lists
+and the (locale dependent) case conversion of commons-validator; the results
+are cached because DomainValidator performs a linear search over its lists;
+the cache is bounded in order to avoid arbitrary input filling up memory
+*/
+final class EmailAddressScanner {
+    private static final int TLD_CACHE_SIZE_MAX = 256;
+    private static final ConcurrentMap<String, Boolean> TLD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Checks {@code value} for being a valid email address.
+     *
+     * @param value the value to check
+     * @return {@code true} if {@code value} is a valid email address according
+     *     to commons-validator, {@code false} otherwise
+     */
+    public static boolean isValid(String value) {
+        if(value == null) {
+            return false;
+        }
+        final int length = value.length();
+        if(length == 0) {
+            return false;
+        }
+        //user part
+        int index = 0;
+        int wordStart = 0;
+        boolean atFound = false;
+        while(index < length) {
+            char c = value.charAt(index);
+            if(c > 0x7F) {
+                return false;
+            }
+            if(requiresFallback(c)) {
+                return EmailValidator.getInstance(false //allowLocal
+                        ).isValid(value);
+            }
+            if(c == '@') {
+                if(index == wordStart) {
+                    //empty user or empty last word
+                    return false;
+                }
+                atFound = true;
+                index++;
+                break;
+            }
+            if(c == '.') {
+                if(index == wordStart) {
+                    return false;
+                }
+                wordStart = index+1;
+            }else if(!isUserChar(c)) {
+                return false;
+            }
+            index++;
+        }
+        if(!atFound) {
+            return false;
+        }
+        return isValidDomain(value, index);
+    }
+
+    private static boolean isValidDomain(String value, int domainStart) {
+        final int length = value.length();
+        if(domainStart == length) {
+            return false;
+        }
+        int labelStart = domainStart;
+        int labelCount = 0;
+        boolean labelAlpha = true;
+        for(int index = domainStart; index < length; index++) {
+            char c = value.charAt(index);
+            if(c > 0x7F) {
+                return false;
+            }
+            if(requiresFallback(c) || c == '@') {
+                return EmailValidator.getInstance(false //allowLocal
+                        ).isValid(value);
+            }
+            if(c == '.') {
+                if(index == labelStart
+                        || value.charAt(index-1) == '-') {
+                    return false;
+                }
+                labelCount++;
+                labelStart = index+1;
+                labelAlpha = true;
+            }else if(isAlpha(c)) {
+                //nothing to do
+            }else if(c >= '0' && c <= '9') {
+                labelAlpha = false;
+            }else if(c == '-') {
+                if(index == labelStart) {
+                    return false;
+                }
+                labelAlpha = false;
+            }else {
+                return false;
+            }
+        }
+        if(labelCount == 0
+                || !labelAlpha
+                || length-labelStart < 2) {
+            //labelAlpha implies that the last label neither starts nor ends
+            //with a hyphen and that it's not empty if its length is >= 2
+            return false;
+        }
+        return isValidTld(value.substring(labelStart));
+    }
+
+    private static boolean isValidTld(String tld) {
+        Boolean retValue = TLD_CACHE.get(tld);
+        if(retValue == null) {
+            retValue = DomainValidator.getInstance(false //allowLocal
+                    ).isValidTld(tld);
+            if(TLD_CACHE.size() < TLD_CACHE_SIZE_MAX) {
+                TLD_CACHE.put(tld, retValue);
+            }
+        }
+        return retValue;
+    }
+
+    private static boolean requiresFallback(char c) {
+        return c <= ' '
+                || c == 0x7F
+                || c == '"'
+                || c == '['
+                || c == ']';
+    }
+
+    private static boolean isUserChar(char c) {
+        switch(c) {
+            case '(':
+            case ')':
+            case '<':
+            case '>':
+            case ',':
+            case ';':
+            case ':':
+            case '\\':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private EmailAddressScanner() {
+    }
+}
@@ -16,13 +16,16 @@ package de.richtercloud.validation.tools.extension;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
-import org.apache.commons.validator.routines.EmailValidator;
 
 /**
  * Validates a string to be a valid email address.
  *
  * This becomes obsolete with JSR 380's {@code @Email}.
  *
+ * The validation gives the same results as {@code EmailValidator} of
+ * commons-validator, but checks plain ASCII addresses with a single pass
+ * scanner and delegates only unusual addresses to commons-validator.
+ *
  * @author richter
  */
 public class EmailAddressValidator implements ConstraintValidator<ValidEmailAddress, String> {
@@ -35,8 +38,7 @@ public class EmailAddressValidator implements ConstraintValidator<ValidEmailAddr
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        return EmailValidator.getInstance(false //allowLocal
-                ).isValid(value);
+        return EmailAddressScanner.isValid(value);
     }
 
 }
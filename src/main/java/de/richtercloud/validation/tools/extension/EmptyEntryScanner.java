@@ -0,0 +1,115 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * Checks sequences of objects and maps for {@code null} and the empty string in
+ * a single pass which stops at the first match.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- Collection.contains isn't used because it requires one pass per searched
+value and because collections may throw NullPointerException when asked
+whether they contain null (e.g. the key set of ConcurrentHashMap or Guava's
+ImmutableMap)
+- only arrays and RandomAccess lists are scanned in parallel since they can be
+split without iterating and since the iterators of arbitrary collections (e.g.
+lazily loaded persistent collections) can't be assumed to be safe for use from
+other threads
+- maps are scanned in parallel based on the spliterator of their entry set
+since the entry set is retrieved on the calling thread (which initializes lazily
+loaded persistent maps) and since a spliterator is only used by one thread at a
+time
+*/
+final class EmptyEntryScanner {
+    /**
+     * The number of elements from which on arrays, {@link RandomAccess} lists
+     * and maps are scanned in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    static boolean isEmptyEntry(Object entry) {
+        return entry == null
+                || entry instanceof String && ((String)entry).isEmpty();
+    }
+
+    static boolean containsEmptyEntry(Iterable<?> value) {
+        if(value instanceof List && value instanceof RandomAccess) {
+            return containsEmptyEntry((List<?>)value);
+        }
+        for(Object entry : value) {
+            if(isEmptyEntry(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsEmptyEntry(List<?> value) {
+        final int size = value.size();
+        if(size >= PARALLEL_THRESHOLD) {
+            return IntStream.range(0, size).parallel()
+                    .anyMatch(index -> isEmptyEntry(value.get(index)));
+        }
+        for(int i=0; i<size; i++) {
+            if(isEmptyEntry(value.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean containsEmptyEntry(Object[] value) {
+        if(value.length >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(value).parallel()
+                    .anyMatch(EmptyEntryScanner::isEmptyEntry);
+        }
+        for(Object entry : value) {
+            if(isEmptyEntry(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isEmptyEntry(Map.Entry<?, ?> entry) {
+        return isEmptyEntry(entry.getKey())
+                || isEmptyEntry(entry.getValue());
+    }
+
+    static boolean containsEmptyEntry(Map<?, ?> value) {
+        if(value.size() >= PARALLEL_THRESHOLD) {
+            return value.entrySet().parallelStream()
+                    .anyMatch(EmptyEntryScanner::isEmptyEntry);
+        }
+        for(Map.Entry<?, ?> entry : value.entrySet()) {
+            if(isEmptyEntry(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EmptyEntryScanner() {
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validates {@link NoEmptyEntriesList} on arrays of objects.
+ *
+ * @author richter
+ */
+public class NoEmptyEntriesArrayValidator implements ConstraintValidator<NoEmptyEntriesList, Object[]> {
+
+    @Override
+    public void initialize(NoEmptyEntriesList constraintAnnotation) {
+        //do nothing
+    }
+
+    /**
+     * Validates that a non-{@code null} array doesn't contain {@code null} or
+     * the empty string. {@code null} is valid.
+     * @param value the value to check
+     * @param context the context passed by the validation framework
+     * @return {@code true} if {@code value} is {@code null} (in order to be
+     *     able to combine with {@code @NotNull} or doesn't contain {@code null}
+     *     or the empty string
+     */
+    @Override
+    public boolean isValid(Object[] value, ConstraintValidatorContext context) {
+        if(value == null) {
+            return true;
+        }
+        return !EmptyEntryScanner.containsEmptyEntry(value);
+    }
+}
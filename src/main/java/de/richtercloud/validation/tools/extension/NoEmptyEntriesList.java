@@ -23,14 +23,17 @@ import javax.validation.Constraint;
 import javax.validation.Payload;
 
 /**
- * Indicates that a {@link java.util.List} field must not contain the empty
- * string or {@code null}.
+ * Indicates that a {@link java.util.List}, {@link java.util.Collection},
+ * {@link Iterable} or array field must not contain the empty string or
+ * {@code null}.
  *
  * @author richter
  */
 @Target( { ElementType.FIELD })
 @Retention(RUNTIME)
-@Constraint(validatedBy = NoEmptyEntriesListValidator.class)
+@Constraint(validatedBy = {NoEmptyEntriesListValidator.class,
+    NoEmptyEntriesIterableValidator.class,
+    NoEmptyEntriesArrayValidator.class})
 @Documented
 public @interface NoEmptyEntriesList {
 
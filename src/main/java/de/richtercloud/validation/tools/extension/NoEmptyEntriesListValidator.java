@@ -38,16 +38,11 @@ public class NoEmptyEntriesListValidator implements ConstraintValidator<NoEmptyE
      *     able to combine with {@code @NotNull} or doesn't contain {@code null}
      *     or the empty string
      */
-    /*
-    internal implementation notes:
-    - ignore the fact that checking whether list contains "" is a waste for
-    lists which don't contain strings
-    */
     @Override
     public boolean isValid(List<?> value, ConstraintValidatorContext context) {
         if(value == null) {
             return true;
         }
-        return !value.contains(null) && !value.contains("");
+        return !EmptyEntryScanner.containsEmptyEntry(value);
     }
 }
@@ -38,17 +38,11 @@ public class NoEmptyEntriesMapValidator implements ConstraintValidator<NoEmptyEn
      *     able to combine with {@code @NotNull} or doesn't contain {@code null}
      *     or the empty string in the key and value set
      */
-    /*
-    internal implementation notes:
-    - ignore the fact that checking whether list contains "" is a waste for
-    lists which don't contain strings
-    */
     @Override
     public boolean isValid(Map<?, ?> value, ConstraintValidatorContext context) {
         if(value == null) {
             return true;
         }
-        return !value.keySet().contains(null) && !value.keySet().contains("")
-                && !value.values().contains(null) && !value.values().contains("");
+        return !EmptyEntryScanner.containsEmptyEntry(value);
     }
 }
@@ -0,0 +1,188 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.processor;
+
+import de.richtercloud.validation.tools.FieldTable;
+import de.richtercloud.validation.tools.annotations.GenerateFieldTable;
+import de.richtercloud.validation.tools.annotations.Skip;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@link FieldTable} for every class annotated with
+ * {@link GenerateFieldTable} containing the declared fields which
+ * {@link de.richtercloud.validation.tools.CachedFieldRetriever} would retrieve
+ * with reflection, i.e. all declared fields except {@code static} and
+ * {@code transient} fields and those annotated with {@link Skip}. The names of
+ * the classes are written to {@link FieldTable#INDEX_RESOURCE_NAME} in the last
+ * round so that classes without table can be recognized at runtime without
+ * trying to load their table.
+ *
+ * Inner (non-{@code static} nested) and local classes aren't supported since
+ * they have synthetic fields which aren't visible at compile time.
+ *
+ * @author richter
+ */
+/*
+internal implementation notes:
+- the processor is registered in META-INF/services and therefore has to be
+excluded from the compilation of this project with -proc:none
+- Skip is compared by name in order to work if the annotation is only
+available as class file
+- the index is written once in the last round because the Filer doesn't allow
+to create the same resource more than once
+*/
+public class FieldTableProcessor extends AbstractProcessor {
+    private final Set<String> indexedClassNames = new LinkedHashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateFieldTable.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+            RoundEnvironment roundEnv) {
+        if(roundEnv.processingOver()) {
+            if(!indexedClassNames.isEmpty()) {
+                try {
+                    writeIndex();
+                }catch(IOException ex) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            String.format("writing field table index failed: %s",
+                                    ex.getMessage()));
+                }
+            }
+            return true;
+        }
+        for(Element annotatedElement : roundEnv.getElementsAnnotatedWith(GenerateFieldTable.class)) {
+            if(annotatedElement.getKind() != ElementKind.CLASS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("@%s is only supported on classes",
+                                GenerateFieldTable.class.getSimpleName()),
+                        annotatedElement);
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) annotatedElement;
+            if(typeElement.getNestingKind() == NestingKind.LOCAL
+                    || typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                    || typeElement.getNestingKind() == NestingKind.MEMBER
+                    && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("@%s isn't supported on inner and local classes",
+                                GenerateFieldTable.class.getSimpleName()),
+                        annotatedElement);
+                continue;
+            }
+            try {
+                generateFieldTable(typeElement);
+            }catch(IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        String.format("generating field table failed: %s",
+                                ex.getMessage()),
+                        annotatedElement);
+            }
+        }
+        return true;
+    }
+
+    private void generateFieldTable(TypeElement typeElement) throws IOException {
+        List<String> fieldNames = new ArrayList<>();
+        int declaredFieldCount = 0;
+        for(VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+            if(field.getModifiers().contains(Modifier.STATIC)
+                    || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            declaredFieldCount += 1;
+            if(!isSkipped(field)) {
+                fieldNames.add(field.getSimpleName().toString());
+            }
+        }
+        String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        String tableClassName = FieldTable.getTableClassName(className);
+        int packageEnd = tableClassName.lastIndexOf('.');
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(tableClassName,
+                typeElement);
+        try (Writer writer = sourceFile.openWriter()) {
+            if(packageEnd > 0) {
+                writer.append("package ").append(tableClassName.substring(0, packageEnd)).append(";\n\n");
+            }
+            writer.append("/**\n * The relevant fields of {@code ").append(className.replace('$', '.'))
+                    .append("}.\n *\n * Generated by {@link ").append(FieldTableProcessor.class.getName())
+                    .append("}.\n */\n");
+            writer.append("public final class ").append(tableClassName.substring(packageEnd+1))
+                    .append(" implements ").append(FieldTable.class.getName()).append(" {\n");
+            writer.append("    private static final String[] FIELD_NAMES = {");
+            for(int i=0; i<fieldNames.size(); i++) {
+                if(i > 0) {
+                    writer.append(", ");
+                }
+                writer.append('"').append(fieldNames.get(i)).append('"');
+            }
+            writer.append("};\n\n");
+            writer.append("    @Override\n    public String[] getFieldNames() {\n        return FIELD_NAMES.clone();\n    }\n\n");
+            writer.append("    @Override\n    public int getDeclaredFieldCount() {\n        return ").append(String.valueOf(declaredFieldCount)).append(";\n    }\n");
+            writer.append("}\n");
+        }
+        indexedClassNames.add(className);
+    }
+
+    private void writeIndex() throws IOException {
+        FileObject indexFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+                "", //pkg
+                FieldTable.INDEX_RESOURCE_NAME);
+        try (Writer writer = indexFile.openWriter()) {
+            for(String indexedClassName : indexedClassNames) {
+                writer.append(indexedClassName).append('\n');
+            }
+        }
+    }
+
+    private static boolean isSkipped(VariableElement field) {
+        for(AnnotationMirror annotationMirror : field.getAnnotationMirrors()) {
+            TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if(annotationElement.getQualifiedName().contentEquals(Skip.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
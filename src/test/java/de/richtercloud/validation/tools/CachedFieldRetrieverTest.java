@@ -15,17 +15,39 @@
 
 package de.richtercloud.validation.tools;
 
+import com.google.common.io.ByteStreams;
 import de.richtercloud.validation.tools.retriever.TestEntitySubclass;
 import de.richtercloud.validation.tools.retriever.HierarchySubclass;
 import de.richtercloud.validation.tools.retriever.TestEntity;
 import de.richtercloud.validation.tools.retriever.HierarchySuperclass;
+import de.richtercloud.validation.tools.retriever.HierarchyInterface;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
 
 /**
  *
@@ -54,4 +76,348 @@ public class CachedFieldRetrieverTest {
         List<Class<?>> result = CachedFieldRetriever.generateInheritanceHierarchy(HierarchySubclass.class);
         assertEquals(expResult, result);
     }
+
+    @Test
+    public void testRetrieveRelevantFieldsConcurrent() throws Exception {
+        CachedFieldRetriever instance = new CachedFieldRetriever();
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<List<Field>>> futures = new LinkedList<>();
+            for(int i=0; i<threadCount; i++) {
+                Class<?> entityClass = i % 2 == 0 ? TestEntity.class : TestEntitySubclass.class;
+                Callable<List<Field>> task = () -> {
+                    startLatch.await();
+                    return instance.retrieveRelevantFields(entityClass);
+                };
+                futures.add(executorService.submit(task));
+            }
+            startLatch.countDown();
+            List<Field> expResult = instance.retrieveRelevantFields(TestEntity.class);
+            List<Field> expResultSubclass = instance.retrieveRelevantFields(TestEntitySubclass.class);
+            int index = 0;
+            for(Future<List<Field>> future : futures) {
+                //the same shared instance has to be returned for every caller
+                assertSame(index % 2 == 0 ? expResult : expResultSubclass,
+                        future.get());
+                index += 1;
+            }
+        }finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetrieveRelevantFieldsIncremental() throws NoSuchFieldException {
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            List<Class<?>> computedClasses = new LinkedList<>();
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED) {
+                @Override
+                protected List<Field> computeDeclaredRelevantFields(Class<?> clazz) {
+                    computedClasses.add(clazz);
+                    return super.computeDeclaredRelevantFields(clazz);
+                }
+            };
+            List<Field> result = instance.retrieveRelevantFields(TestEntitySubclass.class);
+            assertEquals(Arrays.asList(TestEntitySubclass.class.getDeclaredField("b"),
+                    TestEntity.class.getDeclaredField("a"),
+                    TestEntity.class.getDeclaredField("m")),
+                    result);
+            instance.retrieveRelevantFields(TestEntity.class);
+            //the superclass is computed only once as part of the subclass
+            assertEquals(Arrays.asList(TestEntity.class, TestEntitySubclass.class),
+                    computedClasses);
+            assertEquals(2, instance.getMissCount());
+            assertEquals(1, instance.getHitCount());
+        }
+    }
+
+    @Test
+    public void testOverwriteCachedResult() throws NoSuchFieldException {
+        List<Field> overridingFields = Arrays.asList(TestEntity.class.getDeclaredField("a"));
+        List<Field> expResultSubclass = Arrays.asList(TestEntitySubclass.class.getDeclaredField("b"),
+                TestEntity.class.getDeclaredField("a"));
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            //subclass cached before the overwrite
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            instance.retrieveRelevantFields(TestEntitySubclass.class);
+            instance.overwriteCachedResult(TestEntity.class,
+                    overridingFields);
+            assertEquals(overridingFields,
+                    instance.retrieveRelevantFields(TestEntity.class));
+            assertEquals(expResultSubclass,
+                    instance.retrieveRelevantFields(TestEntitySubclass.class));
+            assertEquals(3, instance.getMissCount());
+            //subclass cached after the overwrite
+            instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            instance.overwriteCachedResult(TestEntity.class,
+                    overridingFields);
+            assertEquals(expResultSubclass,
+                    instance.retrieveRelevantFields(TestEntitySubclass.class));
+            assertEquals(overridingFields,
+                    instance.retrieveRelevantFields(TestEntity.class));
+            //the overwritten class isn't computed
+            assertEquals(1, instance.getMissCount());
+        }
+    }
+
+    @Test
+    public void testRetrieveRelevantFieldAccessors() throws Exception {
+        Constructor<TestEntitySubclass> constructor = TestEntitySubclass.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        TestEntitySubclass entity = constructor.newInstance();
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            List<Field> fields = instance.retrieveRelevantFields(TestEntitySubclass.class);
+            List<FieldAccessor> result = instance.retrieveRelevantFieldAccessors(TestEntitySubclass.class);
+            assertSame(result, instance.retrieveRelevantFieldAccessors(TestEntitySubclass.class));
+            assertEquals(fields.size(), result.size());
+            for(int i=0; i<fields.size(); i++) {
+                assertEquals(fields.get(i), result.get(i).getField());
+                assertEquals(fields.get(i).get(entity),
+                        result.get(i).get(entity));
+            }
+            //accessors of superclass fields are shared
+            assertSame(instance.retrieveRelevantFieldAccessors(TestEntity.class).get(0),
+                    result.get(1));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRetrieveRelevantFieldsUnmodifiable() {
+        CachedFieldRetriever instance = new CachedFieldRetriever();
+        instance.retrieveRelevantFields(TestEntity.class).clear();
+    }
+
+    @Test
+    public void testRetrieveRelevantField() throws NoSuchFieldException {
+        CachedFieldRetriever instance = new CachedFieldRetriever();
+        assertEquals(TestEntity.class.getDeclaredField("a"),
+                instance.retrieveRelevantField(TestEntitySubclass.class, "a"));
+        assertEquals(TestEntitySubclass.class.getDeclaredField("b"),
+                instance.retrieveRelevantField(TestEntitySubclass.class, "b"));
+        assertNull(instance.retrieveRelevantField(TestEntity.class, "b"));
+    }
+
+    @Test
+    public void testStatistics() {
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            List<Field> result = instance.retrieveRelevantFields(TestEntity.class);
+            assertSame(result, instance.retrieveRelevantFields(TestEntity.class));
+            instance.retrieveRelevantFields(TestEntitySubclass.class);
+            assertEquals(1, instance.getHitCount());
+            assertEquals(2, instance.getMissCount());
+            assertEquals(2, instance.size());
+            //the cached subclass includes the fields of the superclass and is
+            //invalidated with it
+            instance.invalidate(TestEntity.class);
+            assertEquals(0, instance.size());
+            assertNotSame(result, instance.retrieveRelevantFields(TestEntity.class));
+            assertEquals(3, instance.getMissCount());
+            instance.retrieveRelevantFields(TestEntitySubclass.class);
+            assertEquals(4, instance.getMissCount());
+            instance.invalidate(TestEntitySubclass.class);
+            assertEquals(1, instance.size());
+            instance.invalidateAll();
+            assertEquals(0, instance.size());
+            assertEquals(0, instance.getEvictionCount());
+        }
+    }
+
+    @Test
+    public void testMaximumSize() {
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    1 //maximumSize
+            );
+            List<Field> result = instance.retrieveRelevantFields(TestEntity.class);
+            instance.retrieveRelevantFields(TestEntitySubclass.class);
+            assertEquals(1, instance.size());
+            assertEquals(1, instance.getEvictionCount());
+            assertNotSame(result, instance.retrieveRelevantFields(TestEntity.class));
+            assertEquals(3, instance.getMissCount());
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        CachedFieldRetriever instance = new CachedFieldRetriever();
+        //scans the directory of test classes
+        FieldCacheWarmUpResult result = instance.warmUp(getClass().getClassLoader(),
+                Arrays.asList(TestEntity.class.getPackage().getName()),
+                clazz -> clazz.getSimpleName().startsWith("TestEntity"),
+                ForkJoinPool.commonPool());
+        //TestEntity, TestEntityCollection and TestEntitySubclass
+        assertEquals(3, result.getClassCount());
+        assertEquals(0, result.getFailedClassCount());
+        assertTrue(result.getDurationNanos() > 0);
+        long missCount = instance.getMissCount();
+        instance.retrieveRelevantFields(TestEntitySubclass.class);
+        assertEquals(missCount, instance.getMissCount());
+        //scans a jar file
+        result = instance.warmUp(getClass().getClassLoader(),
+                Test.class.getPackage().getName());
+        assertTrue(result.getClassCount() > 0);
+        assertTrue(instance.size() >= 3+result.getClassCount());
+        instance = new CachedFieldRetriever();
+        result = instance.warmUp(Arrays.asList(TestEntity.class,
+                HierarchySubclass.class));
+        assertEquals(2, result.getClassCount());
+        assertEquals(3, instance.size());
+    }
+
+    @Test
+    public void testWarmUpStatistics() {
+        List<Class<?>> misses = new LinkedList<>();
+        ValidationMetrics.setListener(new ValidationMetricsListener() {
+            @Override
+            public void onFieldCacheMiss(Class<?> clazz,
+                    long computationNanos) {
+                misses.add(clazz);
+            }
+        });
+        try {
+            for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+                misses.clear();
+                CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                        CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+                FieldCacheWarmUpResult result = instance.warmUp(Arrays.asList(TestEntitySubclass.class));
+                assertEquals(1, result.getClassCount());
+                //the superclass is cached as well
+                assertEquals(2, instance.size());
+                //warm-up isn't counted
+                assertEquals(0, instance.getMissCount());
+                assertEquals(0, instance.getHitCount());
+                assertTrue(misses.isEmpty());
+                instance.retrieveRelevantFields(TestEntitySubclass.class);
+                instance.retrieveRelevantFields(HierarchySubclass.class);
+                assertEquals(2, instance.getMissCount());
+                assertEquals(1, instance.getHitCount());
+                assertEquals(Arrays.asList(HierarchySuperclass.class,
+                        HierarchySubclass.class),
+                        misses);
+            }
+        }finally {
+            ValidationMetrics.setListener(null);
+        }
+    }
+
+    /**
+     * Tests that jar files without directory entries, e.g. built with
+     * {@code zip -D} or by shading, are scanned.
+     */
+    @Test
+    public void testWarmUpJarWithoutDirectoryEntries() throws Exception {
+        Path jarFile = Files.createTempFile(CachedFieldRetrieverTest.class.getSimpleName(),
+                ".jar");
+        try {
+            try(JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jarFile))) {
+                for(Class<?> clazz : Arrays.asList(HierarchySuperclass.class,
+                        HierarchyInterface.class)) {
+                    String entryName = clazz.getName().replace('.', '/')+".class";
+                    jarOutputStream.putNextEntry(new JarEntry(entryName));
+                    try(InputStream classInputStream = clazz.getClassLoader().getResourceAsStream(entryName)) {
+                        ByteStreams.copy(classInputStream,
+                                jarOutputStream);
+                    }
+                    jarOutputStream.closeEntry();
+                }
+            }
+            try(URLClassLoader classLoader = new URLClassLoader(new URL[] {jarFile.toUri().toURL()},
+                    null //parent
+            )) {
+                FieldCacheWarmUpResult result = new CachedFieldRetriever().warmUp(classLoader,
+                        HierarchySuperclass.class.getPackage().getName());
+                //the interface is skipped
+                assertEquals(1, result.getClassCount());
+                assertEquals(0, result.getFailedClassCount());
+                assertTrue(result.getUnscannedLocations().isEmpty());
+            }
+        }finally {
+            Files.delete(jarFile);
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Path snapshotFile = Files.createTempFile(CachedFieldRetrieverTest.class.getSimpleName(),
+                ".snapshot");
+        try {
+            CachedFieldRetriever instance = new CachedFieldRetriever();
+            List<Field> expResult = instance.retrieveRelevantFields(TestEntitySubclass.class);
+            instance.retrieveRelevantFields(HierarchySubclass.class);
+            instance.exportSnapshot(snapshotFile);
+            CachedFieldRetriever restored = new CachedFieldRetriever(FieldCacheMode.WEAK,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            FieldMetadataSnapshot snapshot = restored.importSnapshot(snapshotFile);
+            assertEquals(4, snapshot.size());
+            assertEquals(0, snapshot.getResolvedCount());
+            assertEquals(expResult, restored.retrieveRelevantFields(TestEntitySubclass.class));
+            assertEquals(2, snapshot.getResolvedCount());
+            assertEquals(0, snapshot.getStaleCount());
+            restored.exportSnapshot(snapshotFile);
+            assertEquals(2, FieldMetadataSnapshot.open(snapshotFile).size());
+            //an entry which doesn't match the class is ignored
+            Map<Class<?>, List<Field>> declaredRelevantFields = new HashMap<>();
+            declaredRelevantFields.put(TestEntity.class,
+                    Arrays.asList(TestEntitySubclass.class.getDeclaredField("b")));
+            FieldMetadataSnapshot.write(snapshotFile,
+                    declaredRelevantFields);
+            restored = new CachedFieldRetriever();
+            snapshot = restored.importSnapshot(snapshotFile);
+            assertEquals(new CachedFieldRetriever().retrieveRelevantFields(TestEntity.class),
+                    restored.retrieveRelevantFields(TestEntity.class));
+            assertEquals(0, snapshot.getResolvedCount());
+            assertEquals(1, snapshot.getStaleCount());
+            //corrupt entry counts
+            byte[] snapshotBytes = Files.readAllBytes(snapshotFile);
+            for(int entryCount : new int[] {-1, Integer.MAX_VALUE}) {
+                ByteBuffer.wrap(snapshotBytes).putInt(8,
+                        entryCount);
+                Files.write(snapshotFile,
+                        snapshotBytes);
+                Assertions.assertThrows(IOException.class,
+                        () -> FieldMetadataSnapshot.open(snapshotFile));
+            }
+        }finally {
+            Files.delete(snapshotFile);
+        }
+    }
+
+    @Test
+    public void testSnapshotUnresolvableTypeArguments() throws Exception {
+        //the type argument javax.money.CurrencyUnit of a field isn't on the
+        //classpath
+        Class<?> clazz = Class.forName("org.hibernate.validator.internal.constraintvalidators.bv.money.CurrencyValidatorForMonetaryAmount",
+                false, //initialize
+                CachedFieldRetrieverTest.class.getClassLoader());
+        Path snapshotFile = Files.createTempFile(CachedFieldRetrieverTest.class.getSimpleName(),
+                ".snapshot");
+        try {
+            CachedFieldRetriever instance = new CachedFieldRetriever();
+            List<Field> expResult = instance.retrieveRelevantFields(clazz);
+            assertEquals(1, expResult.size());
+            instance.retrieveRelevantFields(TestEntity.class);
+            assertEquals(2, instance.exportSnapshot(snapshotFile));
+            try(Stream<Path> files = Files.list(snapshotFile.getParent())) {
+                assertFalse(files.anyMatch(file -> file.getFileName().toString().startsWith(snapshotFile.getFileName().toString())
+                        && file.getFileName().toString().endsWith(".tmp")));
+            }
+            CachedFieldRetriever restored = new CachedFieldRetriever();
+            FieldMetadataSnapshot snapshot = restored.importSnapshot(snapshotFile);
+            assertEquals(2, snapshot.size());
+            assertEquals(expResult, restored.retrieveRelevantFields(clazz));
+            assertEquals(1, snapshot.getResolvedCount());
+            assertEquals(0, snapshot.getStaleCount());
+        }finally {
+            Files.delete(snapshotFile);
+        }
+    }
 }
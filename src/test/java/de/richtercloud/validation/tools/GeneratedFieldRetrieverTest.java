@@ -0,0 +1,104 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import de.richtercloud.validation.tools.retriever.GeneratedEntity;
+import de.richtercloud.validation.tools.retriever.TestEntity;
+import java.lang.reflect.Field;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author richter
+ */
+public class GeneratedFieldRetrieverTest {
+
+    @Test
+    public void testRetrieveRelevantFields() {
+        GeneratedFieldRetriever instance = new GeneratedFieldRetriever();
+        CachedFieldRetriever reflectionFieldRetriever = new CachedFieldRetriever();
+        for(Class<?> entityClass : new Class<?>[] {GeneratedEntity.class,
+            GeneratedEntity.Nested.class,
+            TestEntity.class}) {
+            List<Field> expResult = reflectionFieldRetriever.retrieveRelevantFields(entityClass);
+            List<Field> result = instance.retrieveRelevantFields(entityClass);
+            assertEquals(expResult, result);
+            for(Field field : result) {
+                assertTrue(field.isAccessible());
+            }
+        }
+    }
+
+    @Test
+    public void testLoadFieldTable() {
+        GeneratedFieldRetriever instance = new GeneratedFieldRetriever();
+        FieldTable result = instance.loadFieldTable(GeneratedEntity.Nested.class);
+        assertNotNull(result);
+        assertArrayEquals(new String[] {"e"},
+                result.getFieldNames());
+        assertEquals(1, result.getDeclaredFieldCount());
+        result = instance.loadFieldTable(GeneratedEntity.class);
+        assertArrayEquals(new String[] {"c", "d"},
+                result.getFieldNames());
+        //the skipped field is counted, the static and transient ones aren't
+        assertEquals(3, result.getDeclaredFieldCount());
+        assertNull(instance.loadFieldTable(TestEntity.class));
+        assertNull(instance.loadFieldTable(String.class));
+    }
+
+    @Test
+    public void testRetrieveRelevantFieldsStaleTable() {
+        //tables generated before d has been added or c has been removed
+        for(FieldTable staleFieldTable : new FieldTable[] {new StaticFieldTable(new String[] {"c"},
+                        2),
+                new StaticFieldTable(new String[] {"c", "d", "removed"},
+                        4)}) {
+            GeneratedFieldRetriever instance = new GeneratedFieldRetriever() {
+                @Override
+                protected FieldTable loadFieldTable(Class<?> clazz) {
+                    if(clazz == GeneratedEntity.class) {
+                        return staleFieldTable;
+                    }
+                    return super.loadFieldTable(clazz);
+                }
+            };
+            assertEquals(new CachedFieldRetriever().retrieveRelevantFields(GeneratedEntity.class),
+                    instance.retrieveRelevantFields(GeneratedEntity.class));
+        }
+    }
+
+    private static final class StaticFieldTable implements FieldTable {
+        private final String[] fieldNames;
+        private final int declaredFieldCount;
+
+        StaticFieldTable(String[] fieldNames,
+                int declaredFieldCount) {
+            this.fieldNames = fieldNames;
+            this.declaredFieldCount = declaredFieldCount;
+        }
+
+        @Override
+        public String[] getFieldNames() {
+            return fieldNames.clone();
+        }
+
+        @Override
+        public int getDeclaredFieldCount() {
+            return declaredFieldCount;
+        }
+    }
+}
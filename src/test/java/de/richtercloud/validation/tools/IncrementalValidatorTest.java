@@ -0,0 +1,159 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import de.richtercloud.validation.tools.validator.Bean0;
+import de.richtercloud.validation.tools.validator.Bean0Validator;
+import de.richtercloud.validation.tools.validator.Bean1;
+import de.richtercloud.validation.tools.validator.Bean2;
+import de.richtercloud.validation.tools.validator.Bean2Validator;
+import de.richtercloud.validation.tools.validator.IncrementalBean;
+import de.richtercloud.validation.tools.validator.IncrementalChild;
+import de.richtercloud.validation.tools.validator.SequenceBean;
+import de.richtercloud.validation.tools.validator.StrictSequence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author richter
+ */
+public class IncrementalValidatorTest {
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static Set<String> describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath()+": "+violation.getMessage())
+                .collect(Collectors.toSet());
+    }
+
+    private void assertSameAsFullValidation(Set<ConstraintViolation<IncrementalBean>> result,
+            IncrementalBean bean) {
+        assertEquals(describe(validator.validate(bean)),
+                describe(result));
+    }
+
+    @Test
+    public void testValidate() {
+        IncrementalValidator<IncrementalBean> instance = new IncrementalValidator<>(validator,
+                new CachedFieldRetriever());
+        IncrementalBean bean = new IncrementalBean(null,
+                0,
+                new IncrementalChild("a"));
+        bean.getChildren().add(new IncrementalChild("bb"));
+        Set<ConstraintViolation<IncrementalBean>> result = instance.validate(bean);
+        assertEquals(3, result.size());
+        assertSameAsFullValidation(result, bean);
+        assertEquals(1, instance.getFullValidationCount());
+        //no change
+        assertSame(result, instance.validate(bean));
+        assertEquals(0, instance.getPropertyValidationCount());
+        bean.setName("name");
+        result = instance.validate(bean);
+        assertSameAsFullValidation(result, bean);
+        assertEquals(1, instance.getPropertyValidationCount());
+        bean.getChild().setValue("aa");
+        bean.getChildren().get(0).setValue("b");
+        result = instance.validate(bean);
+        assertSameAsFullValidation(result, bean);
+        assertEquals(3, instance.getPropertyValidationCount());
+        assertEquals(1, instance.getFullValidationCount());
+        //structural changes
+        bean.setChild(new IncrementalChild("c"));
+        result = instance.validate(bean);
+        assertSameAsFullValidation(result, bean);
+        bean.getChildren().add(new IncrementalChild("d"));
+        result = instance.validate(bean);
+        assertSameAsFullValidation(result, bean);
+        assertEquals(3, instance.getFullValidationCount());
+        //another instance
+        IncrementalBean bean2 = new IncrementalBean("name",
+                1,
+                null);
+        result = instance.validate(bean2);
+        assertEquals(4, instance.getFullValidationCount());
+        assertTrue(result.isEmpty());
+        instance.reset();
+        instance.validate(bean2);
+        assertEquals(5, instance.getFullValidationCount());
+    }
+
+    /**
+     * Tests that changes of properties of beans with class-level constraints
+     * cause a validation of the whole instance.
+     */
+    @Test
+    public void testValidateClassConstraints() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        IncrementalValidator<Object> instance = new IncrementalValidator<>(validator,
+                new CachedFieldRetriever());
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), "property0");
+        Set<ConstraintViolation<Object>> result = instance.validate(bean0);
+        assertEquals(describe(validator.validate(bean0)),
+                describe(result));
+        assertSame(result, instance.validate(bean0));
+        assertEquals(1, instance.getFullValidationCount());
+        bean0.setProperty0("property1");
+        result = instance.validate(bean0);
+        assertEquals(describe(validator.validate(bean0)),
+                describe(result));
+        assertEquals(2, instance.getFullValidationCount());
+        assertEquals(0, instance.getPropertyValidationCount());
+    }
+
+    /**
+     * Tests that group sequences which are requested or redefine the default
+     * group cause a validation of the whole instance since they're applied to
+     * each property separately by {@link Validator#validateProperty(java.lang.Object, java.lang.String, java.lang.Class...) }.
+     */
+    @Test
+    public void testValidateGroupSequences() {
+        IncrementalValidator<SequenceBean> instance = new IncrementalValidator<>(validator,
+                new CachedFieldRetriever());
+        SequenceBean bean = new SequenceBean(null, //name
+                "a" //code
+        );
+        Set<ConstraintViolation<SequenceBean>> result = instance.validate(bean);
+        assertEquals(1, result.size());
+        bean.setCode("b");
+        result = instance.validate(bean);
+        assertEquals(describe(validator.validate(bean)),
+                describe(result));
+        assertEquals(2, instance.getFullValidationCount());
+        assertEquals(0, instance.getPropertyValidationCount());
+        IncrementalValidator<IncrementalBean> sequenceInstance = new IncrementalValidator<>(validator,
+                new CachedFieldRetriever(),
+                StrictSequence.class);
+        IncrementalBean incrementalBean = new IncrementalBean("name",
+                1,
+                null);
+        sequenceInstance.validate(incrementalBean);
+        incrementalBean.setName(null);
+        assertEquals(describe(validator.validate(incrementalBean, StrictSequence.class)),
+                describe(sequenceInstance.validate(incrementalBean)));
+        assertEquals(2, sequenceInstance.getFullValidationCount());
+        assertEquals(0, sequenceInstance.getPropertyValidationCount());
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools;
+
+import de.richtercloud.validation.tools.retriever.TestEntity;
+import de.richtercloud.validation.tools.retriever.TestEntitySubclass;
+import de.richtercloud.validation.tools.validator.Bean0;
+import de.richtercloud.validation.tools.validator.Bean0Validator;
+import de.richtercloud.validation.tools.validator.Bean1;
+import de.richtercloud.validation.tools.validator.Bean2;
+import de.richtercloud.validation.tools.validator.Bean2Validator;
+import de.richtercloud.validation.tools.validator.IncrementalBean;
+import de.richtercloud.validation.tools.validator.IncrementalChild;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.constraints.Min;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author richter
+ */
+public class ValidationMetricsTest {
+
+    @After
+    public void tearDown() {
+        ValidationMetrics.setListener(null);
+    }
+
+    @Test
+    public void testFieldCacheMetrics() {
+        for(FieldCacheMode cacheMode : FieldCacheMode.values()) {
+            RecordingListener listener = new RecordingListener();
+            ValidationMetrics.setListener(listener);
+            CachedFieldRetriever instance = new CachedFieldRetriever(cacheMode,
+                    CachedFieldRetriever.MAXIMUM_SIZE_UNBOUNDED);
+            instance.retrieveRelevantFields(TestEntity.class);
+            instance.retrieveRelevantFields(TestEntity.class);
+            instance.retrieveRelevantField(TestEntitySubclass.class,
+                    "property0");
+            assertEquals(1, listener.hits.size());
+            assertEquals(TestEntity.class, listener.hits.get(0));
+            assertEquals(2, listener.misses.size());
+            assertEquals(TestEntity.class, listener.misses.get(0));
+            assertEquals(TestEntitySubclass.class, listener.misses.get(1));
+            assertTrue(listener.computationNanos >= 0);
+        }
+    }
+
+    @Test
+    public void testMessageMetrics() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), "property0");
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        RecordingListener listener = new RecordingListener();
+        ValidationMetrics.setListener(listener);
+        for(OutputMode outputMode : OutputMode.values()) {
+            listener.messageCount = 0;
+            listener.constraintTypes.clear();
+            String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                    bean0,
+                    new CachedFieldRetriever(),
+                    new HashMap<>(),
+                    field -> field.getName(),
+                    false, //skipPathes
+                    outputMode);
+            assertEquals(1, listener.messageCount);
+            assertEquals(outputMode, listener.outputMode);
+            assertEquals(violations.size(), listener.violationCount);
+            assertEquals(result.length(), listener.outputLength);
+            assertTrue(listener.durationNanos >= 0);
+            assertEquals(violations.size(), listener.constraintTypes.size());
+            assertEquals(Min.class, listener.constraintTypes.get(0));
+        }
+    }
+
+    @Test
+    public void testMessageMetricsLimits() {
+        IncrementalBean bean = new IncrementalBean(null, //name
+                1, //count
+                null //child
+        );
+        for(int i=0; i<10; i++) {
+            bean.getChildren().add(new IncrementalChild("x"));
+        }
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean);
+        assertEquals(11, violations.size());
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> field.getName());
+        RecordingListener listener = new RecordingListener();
+        ValidationMetrics.setListener(listener);
+        //only the written violations are reported
+        ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        3, //maxLines
+                        RenderingOptions.UNLIMITED //maxCharacters
+                ));
+        assertEquals(3, listener.violationCount);
+        assertEquals(3, listener.constraintTypes.size());
+        //all violations of written groups are reported
+        listener.constraintTypes.clear();
+        ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        true, //aggregate
+                        1, //maxLines
+                        RenderingOptions.UNLIMITED //maxCharacters
+                ));
+        assertTrue(listener.violationCount == 1
+                || listener.violationCount == 10);
+        assertEquals(listener.violationCount, listener.constraintTypes.size());
+        assertEquals(1, new HashSet<>(listener.constraintTypes).size());
+    }
+
+    private static class RecordingListener implements ValidationMetricsListener {
+        private final List<Class<?>> hits = new ArrayList<>();
+        private final List<Class<?>> misses = new ArrayList<>();
+        private long computationNanos;
+        private int messageCount;
+        private OutputMode outputMode;
+        private int violationCount;
+        private long outputLength;
+        private long durationNanos;
+        private final List<Class<? extends Annotation>> constraintTypes = new ArrayList<>();
+
+        @Override
+        public void onFieldCacheHit(Class<?> clazz) {
+            hits.add(clazz);
+        }
+
+        @Override
+        public void onFieldCacheMiss(Class<?> clazz,
+                long computationNanos) {
+            misses.add(clazz);
+            this.computationNanos = computationNanos;
+        }
+
+        @Override
+        public void onMessageBuilt(OutputMode outputMode,
+                int violationCount,
+                long outputLength,
+                long durationNanos) {
+            messageCount++;
+            this.outputMode = outputMode;
+            this.violationCount = violationCount;
+            this.outputLength = outputLength;
+            this.durationNanos = durationNanos;
+        }
+
+        @Override
+        public void onConstraintViolation(Class<? extends Annotation> constraintType) {
+            constraintTypes.add(constraintType);
+        }
+    }
+}
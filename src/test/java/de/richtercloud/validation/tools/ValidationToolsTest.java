@@ -14,16 +14,29 @@
  */
 package de.richtercloud.validation.tools;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.validation.ConstraintViolation;
 import javax.validation.Path;
 import javax.validation.Validation;
+import javax.validation.Validator;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
 import net.jqwik.api.constraints.WithNull;
@@ -42,6 +55,10 @@ import de.richtercloud.validation.tools.validator.Bean0Validator;
 import de.richtercloud.validation.tools.validator.Bean1;
 import de.richtercloud.validation.tools.validator.Bean2;
 import de.richtercloud.validation.tools.validator.Bean2Validator;
+import de.richtercloud.validation.tools.validator.GenericItem;
+import de.richtercloud.validation.tools.validator.GenericSubclass;
+import de.richtercloud.validation.tools.validator.IncrementalBean;
+import de.richtercloud.validation.tools.validator.IncrementalChild;
 
 /**
  *
@@ -179,4 +196,646 @@ public class ValidationToolsTest {
                 false,
                 true);
     }
+
+    @Test
+    public void testBuildConstraintVioloationMessagePathDescriptionCache() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        bean2s.add(new Bean2(-1));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), null);
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        FieldRetriever fieldRetriever = new CachedFieldRetriever();
+        FieldNameLambda fieldNameLambda = field -> "+++"+field.getName()+",,,";
+        String expResult = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                fieldRetriever,
+                new HashMap<>(),
+                fieldNameLambda,
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(fieldRetriever,
+                fieldNameLambda);
+        String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                pathDescriptionCache,
+                new HashMap<>(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        assertEquals(expResult, result);
+        //both bean2s violations only differ in the index
+        assertEquals(2, pathDescriptionCache.size());
+        assertEquals(1, pathDescriptionCache.getHitCount());
+        assertEquals(2, pathDescriptionCache.getMissCount());
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                pathDescriptionCache,
+                new HashMap<>(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        assertEquals(expResult, result);
+        assertEquals(4, pathDescriptionCache.getHitCount());
+        assertEquals(2, pathDescriptionCache.getMissCount());
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessageAppendable() throws Exception {
+        Bean0Validator.retValue = false;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), null);
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        FieldRetriever fieldRetriever = new CachedFieldRetriever();
+        FieldNameLambda fieldNameLambda = field -> field.getName();
+        for(OutputMode outputMode : OutputMode.values()) {
+            for(boolean skipPathes : new boolean[] {false, true}) {
+                String expResult = ValidationTools.buildConstraintVioloationMessage(violations,
+                        bean0,
+                        fieldRetriever,
+                        new HashMap<>(),
+                        fieldNameLambda,
+                        skipPathes,
+                        outputMode);
+                StringWriter result = new StringWriter();
+                ValidationTools.buildConstraintVioloationMessage(result,
+                        violations,
+                        bean0,
+                        fieldRetriever,
+                        new HashMap<>(),
+                        fieldNameLambda,
+                        skipPathes,
+                        outputMode);
+                assertEquals(expResult, result.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessages() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> field.getName());
+        List<InstanceViolations<Object>> instanceViolations = new ArrayList<>();
+        List<String> expResult = new ArrayList<>();
+        for(int i=0; i<ValidationTools.BATCH_CHUNK_SIZE*3+1; i++) {
+            List<Bean2> bean2s = new ArrayList<>();
+            for(int j=0; j<i%4; j++) {
+                bean2s.add(new Bean2(0));
+            }
+            Bean0 bean0 = new Bean0(new Bean1(bean2s), i%2 == 0 ? null : "property0");
+            Set<ConstraintViolation<Object>> violations = validator.validate(bean0);
+            instanceViolations.add(new InstanceViolations<>(bean0,
+                    violations));
+            expResult.add(ValidationTools.buildConstraintVioloationMessage(violations,
+                    bean0,
+                    pathDescriptionCache,
+                    new HashMap<>(),
+                    false, //skipPathes
+                    OutputMode.PLAIN_TEXT));
+        }
+        List<String> result = ValidationTools.buildConstraintVioloationMessages(instanceViolations,
+                pathDescriptionCache,
+                new HashMap<>(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        assertEquals(expResult, result);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            result = ValidationTools.buildConstraintVioloationMessages(instanceViolations,
+                    pathDescriptionCache,
+                    new HashMap<>(),
+                    false, //skipPathes
+                    OutputMode.PLAIN_TEXT,
+                    executorService);
+        }finally {
+            executorService.shutdown();
+        }
+        assertEquals(expResult, result);
+    }
+
+    @Test
+    public void testBuildLazyConstraintVioloationMessage() throws Exception {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), "property0");
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        String expResult = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                new CachedFieldRetriever(),
+                new HashMap<>(),
+                field -> field.getName(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        AtomicInteger fieldNameCount = new AtomicInteger();
+        LazyConstraintViolationMessage result = ValidationTools.buildLazyConstraintVioloationMessage(violations,
+                bean0,
+                new CachedFieldRetriever(),
+                new HashMap<>(),
+                field -> {
+                    fieldNameCount.incrementAndGet();
+                    return field.getName();
+                },
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        assertFalse(result.isRendered());
+        assertEquals(0, fieldNameCount.get());
+        int threadCount = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i=0; i<threadCount; i++) {
+                Callable<String> task = () -> {
+                    startLatch.await();
+                    return result.toString();
+                };
+                futures.add(executorService.submit(task));
+            }
+            startLatch.countDown();
+            for(Future<String> future : futures) {
+                assertEquals(expResult, future.get());
+            }
+        }finally {
+            executorService.shutdown();
+        }
+        assertTrue(result.isRendered());
+        //the path bean1.bean2s[0].property0 is resolved only once
+        assertEquals(3, fieldNameCount.get());
+        assertEquals(expResult.length(), result.length());
+        assertEquals(expResult.charAt(1), result.charAt(1));
+        LazyConstraintViolationMessage cachedResult = ValidationTools.buildLazyConstraintVioloationMessage(violations,
+                bean0,
+                new PathDescriptionCache(new CachedFieldRetriever(),
+                        field -> field.getName()),
+                new HashMap<>(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        assertEquals(expResult, cachedResult.get());
+    }
+
+    /**
+     * Tests the resolution of element types of maps, arrays, wildcards and
+     * type variables of generic superclasses.
+     */
+    @Test
+    public void testBuildConstraintVioloationMessageGenericTypes() {
+        List<GenericItem> wildcardItems = new ArrayList<>();
+        wildcardItems.add(new GenericItem(null));
+        GenericSubclass entity = new GenericSubclass(new GenericItem(null),
+                wildcardItems,
+                new GenericItem[] {new GenericItem(null)});
+        entity.getItems().add(new GenericItem(null));
+        entity.getItemMap().put("key", new GenericItem(null));
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(entity);
+        assertEquals(5, violations.size());
+        String message = violations.iterator().next().getMessage();
+        String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                entity,
+                new CachedFieldRetriever(),
+                new HashMap<>(),
+                field -> field.getName(),
+                false, //skipPathes
+                OutputMode.PLAIN_TEXT);
+        for(String pathDescription : new String[] {"item: value: ",
+            "items: value: ",
+            "itemMap: value: ",
+            "wildcardItems: value: ",
+            "itemArray: value: "}) {
+            assertTrue(result.contains(pathDescription+message+"\n"));
+        }
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessageJson() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), "property0");
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        assertEquals(1, violations.size());
+        String message = violations.iterator().next().getMessage();
+        String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                new CachedFieldRetriever(),
+                new HashMap<>(),
+                field -> "\""+field.getName(),
+                false, //skipPathes
+                OutputMode.JSON);
+        assertEquals("{\"violations\":[{\"path\":\"bean1.bean2s[0].property0\","
+                + "\"displayNames\":[\"\\\"bean1\",\"\\\"bean2s\",\"\\\"property0\"],"
+                + "\"message\":\""+message+"\","
+                + "\"invalidValueType\":\"java.lang.Integer\"}]}",
+                result);
+        Map<Path, String> pathDescriptionMap = new HashMap<>();
+        pathDescriptionMap.put(violations.iterator().next().getPropertyPath(),
+                "first\nsecond");
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                new PathDescriptionCache(new CachedFieldRetriever(),
+                        field -> field.getName()),
+                pathDescriptionMap,
+                false, //skipPathes
+                OutputMode.JSON);
+        assertEquals("{\"violations\":[{\"path\":\"bean1.bean2s[0].property0\","
+                + "\"description\":\"first\\nsecond\","
+                + "\"message\":\""+message+"\","
+                + "\"invalidValueType\":\"java.lang.Integer\"}]}",
+                result);
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessageRenderingOptions() {
+        IncrementalBean bean = new IncrementalBean(null, //name
+                1, //count
+                null //child
+        );
+        for(int i=0; i<1000; i++) {
+            bean.getChildren().add(new IncrementalChild("x"));
+        }
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean);
+        assertEquals(1001, violations.size());
+        String sizeMessage = violations.stream()
+                .filter(violation -> violation.getPropertyPath().toString().startsWith("children"))
+                .findAny().get().getMessage();
+        String notNullMessage = violations.stream()
+                .filter(violation -> violation.getPropertyPath().toString().equals("name"))
+                .findAny().get().getMessage();
+        AtomicInteger fieldNameCount = new AtomicInteger();
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> {
+                    fieldNameCount.incrementAndGet();
+                    return field.getName();
+                });
+        String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        true, //aggregate
+                        Integer.MAX_VALUE, //maxLines
+                        Integer.MAX_VALUE //maxCharacters
+                ));
+        assertEquals(3, result.split("\n").length-1);
+        assertTrue(result.contains("children: value: "+sizeMessage+" (1000 times)\n"));
+        assertTrue(result.contains("name: "+notNullMessage+"\n"));
+        assertFalse(result.contains("more"));
+        //paths of lines which aren't written are never resolved
+        fieldNameCount.set(0);
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                new PathDescriptionCache(new CachedFieldRetriever(),
+                        field -> {
+                            fieldNameCount.incrementAndGet();
+                            return field.getName();
+                        }),
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        0, //maxLines
+                        Integer.MAX_VALUE //maxCharacters
+                ));
+        assertEquals("The following constraints are violated:\n"
+                + "...and 1001 more\n"
+                + "Fix the corresponding values in the components.",
+                result);
+        assertEquals(0, fieldNameCount.get());
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        10, //maxLines
+                        Integer.MAX_VALUE //maxCharacters
+                ));
+        String[] lines = result.split("\n");
+        assertEquals(13, lines.length);
+        assertEquals("...and 991 more", lines[11]);
+        int maxCharacters = 200;
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.PLAIN_TEXT,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        Integer.MAX_VALUE, //maxLines
+                        maxCharacters));
+        lines = result.split("\n");
+        int violationCharacters = 0;
+        for(int i=1; i<lines.length-2; i++) {
+            violationCharacters += lines[i].length()+1;
+        }
+        assertTrue(violationCharacters <= maxCharacters);
+        assertTrue(violationCharacters > maxCharacters-("children: value: "+sizeMessage+"\n").length()-("name: "+notNullMessage+"\n").length());
+        assertEquals(String.format("...and %d more", 1001-(lines.length-3)),
+                lines[lines.length-2]);
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                pathDescriptionCache,
+                new RenderingOptions(OutputMode.JSON,
+                        PathDescriptions.NONE,
+                        true, //skipPathes
+                        true, //aggregate
+                        1, //maxLines
+                        Integer.MAX_VALUE //maxCharacters
+                ));
+        assertTrue(result.startsWith("{\"violations\":[{\"path\":\""));
+        assertTrue(result.contains("\"path\":\"children[].value\",\"message\":\""+sizeMessage+"\",\"invalidValueType\":\"java.lang.String\",\"count\":1000}],\"omitted\":1}")
+                || result.contains("\"path\":\"name\",\"message\":\""+notNullMessage+"\",\"invalidValueType\":null,\"count\":1}],\"omitted\":1000}"));
+        //the FieldRetriever variant applies the same options
+        RenderingOptions cappedOptions = new RenderingOptions(OutputMode.PLAIN_TEXT,
+                PathDescriptions.NONE,
+                false, //skipPathes
+                false, //aggregate
+                10, //maxLines
+                Integer.MAX_VALUE //maxCharacters
+        );
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean,
+                new CachedFieldRetriever(),
+                field -> field.getName(),
+                cappedOptions);
+        assertEquals(ValidationTools.buildConstraintVioloationMessage(violations,
+                        bean,
+                        pathDescriptionCache,
+                        cappedOptions),
+                result);
+        assertEquals("...and 991 more", result.split("\n")[11]);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ValidationTools.buildConstraintVioloationMessage(violations,
+                        bean,
+                        new CachedFieldRetriever(),
+                        field -> field.getName(),
+                        (RenderingOptions)null));
+    }
+
+    @Test
+    public void testEncodeConstraintVioloationMessage() throws Exception {
+        IncrementalBean bean = new IncrementalBean(null, //name
+                1, //count
+                null //child
+        );
+        for(int i=0; i<100; i++) {
+            bean.getChildren().add(new IncrementalChild("x"));
+        }
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean);
+        Map<Path, String> pathDescriptionMap = new HashMap<>();
+        for(ConstraintViolation<Object> violation : violations) {
+            if(violation.getPropertyPath().toString().equals("children[0].value")) {
+                //surrogate pair, unpaired surrogate and non-ASCII characters
+                pathDescriptionMap.put(violation.getPropertyPath(),
+                        "\uD83D\uDE00 \uD800 \u00e4\u20ac: ");
+            }
+        }
+        assertEquals(1, pathDescriptionMap.size());
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> field.getName()+"\u00fc");
+        for(OutputMode outputMode : OutputMode.values()) {
+            for(RenderingOptions renderingOptions : new RenderingOptions[] {new RenderingOptions(outputMode,
+                        PathDescriptions.forPaths(pathDescriptionMap),
+                        false, //skipPathes
+                        false, //aggregate
+                        RenderingOptions.UNLIMITED, //maxLines
+                        RenderingOptions.UNLIMITED //maxCharacters
+                ),
+                new RenderingOptions(outputMode,
+                        PathDescriptions.forPaths(pathDescriptionMap),
+                        false, //skipPathes
+                        true, //aggregate
+                        RenderingOptions.UNLIMITED, //maxLines
+                        500 //maxCharacters
+                ),
+                new RenderingOptions(outputMode,
+                        PathDescriptions.forPaths(pathDescriptionMap),
+                        false, //skipPathes
+                        false, //aggregate
+                        RenderingOptions.UNLIMITED, //maxLines
+                        2000 //maxCharacters
+                )}) {
+                String expected = ValidationTools.buildConstraintVioloationMessage(violations,
+                        bean,
+                        pathDescriptionCache,
+                        renderingOptions);
+                byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                ValidationTools.encodeConstraintVioloationMessage(outputStream,
+                        violations,
+                        bean,
+                        pathDescriptionCache,
+                        renderingOptions);
+                assertArrayEquals(expectedBytes,
+                        outputStream.toByteArray());
+                ByteBuffer byteBuffer = ByteBuffer.allocateDirect(expectedBytes.length+2);
+                byteBuffer.put((byte) 1);
+                ValidationTools.encodeConstraintVioloationMessage(byteBuffer,
+                        violations,
+                        bean,
+                        pathDescriptionCache,
+                        renderingOptions);
+                assertEquals(expectedBytes.length+1, byteBuffer.position());
+                byteBuffer.flip();
+                byteBuffer.get();
+                byte[] bufferBytes = new byte[byteBuffer.remaining()];
+                byteBuffer.get(bufferBytes);
+                assertArrayEquals(expectedBytes,
+                        bufferBytes);
+            }
+        }
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessageRenderer() {
+        Bean0Validator.retValue = true;
+        Bean2Validator.retValue = true;
+        List<Bean2> bean2s = new ArrayList<>();
+        bean2s.add(new Bean2(0));
+        Bean0 bean0 = new Bean0(new Bean1(bean2s), "property0");
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean0);
+        assertEquals(1, violations.size());
+        String message = violations.iterator().next().getMessage();
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> field.getName());
+        ViolationRenderer markdownRenderer = new TemplateViolationRenderer("**Violations** {path}\n", //header
+                "- `{path}`{message}{count} {unknown}", //violationTemplate
+                "\n", //separator
+                "\n- {omitted} more", //omittedTemplate
+                "\n" //footer
+        );
+        String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                pathDescriptionCache,
+                new RenderingOptions(markdownRenderer,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        RenderingOptions.UNLIMITED, //maxLines
+                        RenderingOptions.UNLIMITED //maxCharacters
+                ));
+        assertEquals("**Violations** {path}\n"
+                + "- `bean1: bean2s: property0: `"+message+" {unknown}\n",
+                result);
+        result = ValidationTools.buildConstraintVioloationMessage(violations,
+                bean0,
+                pathDescriptionCache,
+                new RenderingOptions(markdownRenderer,
+                        PathDescriptions.NONE,
+                        false, //skipPathes
+                        false, //aggregate
+                        0, //maxLines
+                        Integer.MAX_VALUE //maxCharacters
+                ));
+        assertEquals("**Violations** {path}\n"
+                + "\n- 1 more\n",
+                result);
+        for(OutputMode outputMode : OutputMode.values()) {
+            assertEquals(ValidationTools.buildConstraintVioloationMessage(violations,
+                            bean0,
+                            pathDescriptionCache,
+                            new HashMap<>(),
+                            false, //skipPathes
+                            outputMode),
+                    ValidationTools.buildConstraintVioloationMessage(violations,
+                            bean0,
+                            pathDescriptionCache,
+                            new RenderingOptions(outputMode.getRenderer(),
+                                    PathDescriptions.NONE,
+                                    false, //skipPathes
+                                    false, //aggregate
+                                    RenderingOptions.UNLIMITED, //maxLines
+                                    RenderingOptions.UNLIMITED //maxCharacters
+                            )));
+        }
+    }
+
+    @Test
+    public void testTemplateViolationRendererUnsupportedPlaceholders() {
+        for(String placeholder : new String[] {"{path}", "{message}", "{count}"}) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new TemplateViolationRenderer("", //header
+                            "{message}", //violationTemplate
+                            "\n", //separator
+                            "\n" + placeholder + " {omitted} more", //omittedTemplate
+                            "" //footer
+                    ));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TemplateViolationRenderer("", //header
+                        "{path}{message} of {omitted}", //violationTemplate
+                        "\n", //separator
+                        "\n{omitted} more", //omittedTemplate
+                        "" //footer
+                ));
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessageSharedPrefixes() {
+        IncrementalBean bean = new IncrementalBean(null, //name
+                1, //count
+                new IncrementalChild("x"));
+        for(int i=0; i<100; i++) {
+            bean.getChildren().add(new IncrementalChild("x"));
+        }
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean);
+        assertEquals(102, violations.size());
+        CachedFieldRetriever fieldRetriever = new CachedFieldRetriever();
+        AtomicInteger fieldRequestCount = new AtomicInteger();
+        FieldRetriever countingFieldRetriever = new FieldRetriever() {
+            @Override
+            public List<Field> retrieveRelevantFields(Class<?> clazz) {
+                return fieldRetriever.retrieveRelevantFields(clazz);
+            }
+
+            @Override
+            public Field retrieveRelevantField(Class<?> clazz,
+                    String fieldName) {
+                fieldRequestCount.incrementAndGet();
+                return fieldRetriever.retrieveRelevantField(clazz,
+                        fieldName);
+            }
+        };
+        for(OutputMode outputMode : OutputMode.values()) {
+            fieldRequestCount.set(0);
+            String result = ValidationTools.buildConstraintVioloationMessage(violations,
+                    bean,
+                    countingFieldRetriever,
+                    field -> field.getName(),
+                    outputMode);
+            //name, child, child.value, children and children[].value are
+            //resolved once
+            assertEquals(5, fieldRequestCount.get());
+            assertEquals(ValidationTools.buildConstraintVioloationMessage(violations,
+                            bean,
+                            new PathDescriptionCache(fieldRetriever,
+                                    field -> field.getName()),
+                            new HashMap<>(),
+                            false, //skipPathes
+                            outputMode),
+                    result);
+        }
+    }
+
+    @Test
+    public void testBuildConstraintVioloationMessagePathDescriptions() {
+        IncrementalBean bean = new IncrementalBean(null, //name
+                1, //count
+                new IncrementalChild("x"));
+        for(int i=0; i<3; i++) {
+            bean.getChildren().add(new IncrementalChild("x"));
+        }
+        Set<ConstraintViolation<Object>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(bean);
+        assertEquals(5, violations.size());
+        Map<String, String> patternDescriptions = new HashMap<>();
+        patternDescriptions.put("name", "The name: ");
+        patternDescriptions.put("children[].value", "Any value: ");
+        patternDescriptions.put("children[1].value", "Second value: ");
+        PathDescriptions pathDescriptions = new PathDescriptions(patternDescriptions);
+        Map<Path, String> pathDescriptionMap = new HashMap<>();
+        for(ConstraintViolation<Object> violation : violations) {
+            String path = violation.getPropertyPath().toString();
+            if("name".equals(path)) {
+                pathDescriptionMap.put(violation.getPropertyPath(), "The name: ");
+            }else if("children[1].value".equals(path)) {
+                pathDescriptionMap.put(violation.getPropertyPath(), "Second value: ");
+            }else if(path.startsWith("children[")) {
+                pathDescriptionMap.put(violation.getPropertyPath(), "Any value: ");
+            }
+            assertEquals(pathDescriptionMap.get(violation.getPropertyPath()),
+                    pathDescriptions.getDescription(violation.getPropertyPath()));
+        }
+        PathDescriptionCache pathDescriptionCache = new PathDescriptionCache(new CachedFieldRetriever(),
+                field -> field.getName());
+        for(OutputMode outputMode : OutputMode.values()) {
+            assertEquals(ValidationTools.buildConstraintVioloationMessage(violations,
+                            bean,
+                            pathDescriptionCache,
+                            pathDescriptionMap,
+                            false, //skipPathes
+                            outputMode),
+                    ValidationTools.buildConstraintVioloationMessage(violations,
+                            bean,
+                            pathDescriptionCache,
+                            new RenderingOptions(outputMode,
+                                    pathDescriptions,
+                                    false, //skipPathes
+                                    false, //aggregate
+                                    RenderingOptions.UNLIMITED, //maxLines
+                                    RenderingOptions.UNLIMITED //maxCharacters
+                            )));
+        }
+        for(String malformedPattern : new String[] {".name", "name.", "children[", "children[0]value", "[0].value"}) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new PathDescriptions(Collections.singletonMap(malformedPattern, "x")));
+        }
+    }
 }
@@ -0,0 +1,142 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.Chars;
+import net.jqwik.api.constraints.StringLength;
+import org.apache.commons.validator.routines.EmailValidator;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Compares the results of {@link EmailAddressValidator} with the results of
+ * commons-validator's {@link EmailValidator}.
+ *
+ * @author richter
+ */
+public class EmailAddressValidatorTest {
+    private static final List<String> CORPUS = Arrays.asList("",
+            "a@example.com",
+            "first.last@sub.example.com",
+            "first.last@sub.example.co.uk",
+            "o'brien@example.com",
+            "a+tag@example.org",
+            "a_b-c{d}|e~f!#$%&*/=?^`@example.com",
+            "1@2.de",
+            "a@1example.com",
+            "a@example.c",
+            "a@example.c0m",
+            "a@example.notatld",
+            "a@EXAMPLE.COM",
+            "a@example.Com",
+            "a@example",
+            "a@.example.com",
+            "a@example..com",
+            "a@example.com.",
+            "a@-example.com",
+            "a@example-.com",
+            "a@ex--ample.com",
+            "a@ex_ample.com",
+            "a@123.com",
+            "a@123.456",
+            ".a@example.com",
+            "a.@example.com",
+            "a..b@example.com",
+            "@example.com",
+            "a@",
+            "a",
+            "a@b@example.com",
+            "a(b)@example.com",
+            "a,b@example.com",
+            "a\\b@example.com",
+            "a:b@example.com",
+            "\"a b\"@example.com",
+            "\"a@b\"@example.com",
+            "\"\"@example.com",
+            "a.\"b\".c@example.com",
+            " a@example.com",
+            "a@example.com ",
+            "a@example.com\n",
+            "\ta@example.com",
+            "a @example.com",
+            "a@[127.0.0.1]",
+            "a@[300.0.0.1]",
+            "a@[127.0.0.1",
+            "a[b]@example.com",
+            "ä@example.com",
+            "a@exämple.com",
+            "a@example.comä",
+            "a\u007f@example.com",
+            "a@example.museum",
+            "a@example.travel",
+            "a@localhost",
+            "a@example.localdomain");
+    private static final String[] TOKENS = {"a", "Z", "0", "9", ".", "..",
+        "@", "-", "_", "'", "\"", " ", "\t", "\n", "[", "]", "(", ",", "\\",
+        "ä", "example", "com", "de", "museum", "xn--", "127.0.0.1"};
+    private static final long SEED = 0x5eedL;
+    private static final int RANDOM_COUNT = 100000;
+    private final EmailAddressValidator instance = new EmailAddressValidator();
+
+    private void assertSameResult(String value) {
+        assertEquals(String.format("result differs for '%s'", value),
+                EmailValidator.getInstance(false //allowLocal
+                        ).isValid(value),
+                instance.isValid(value,
+                        null //context
+                ));
+    }
+
+    @Test
+    public void testIsValidCorpus() {
+        for(String value : CORPUS) {
+            assertSameResult(value);
+        }
+        assertSameResult(null);
+    }
+
+    @Test
+    public void testIsValidRandomTokens() {
+        Random random = new Random(SEED);
+        StringBuilder valueBuilder = new StringBuilder(64);
+        for(int i=0; i<RANDOM_COUNT; i++) {
+            valueBuilder.setLength(0);
+            int tokenCount = 1+random.nextInt(10);
+            for(int j=0; j<tokenCount; j++) {
+                valueBuilder.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            assertSameResult(valueBuilder.toString());
+        }
+    }
+
+    @Property
+    public void testIsValidCharacters(@ForAll @StringLength(max = 20)
+            @Chars({'a', 'b', '0', '.', '@', '-', '_', '\'', '"', ' ', '[', ']',
+                '(', 'ä'})
+            String localPart,
+            @ForAll @StringLength(max = 20)
+            @Chars({'a', 'b', '0', '.', '@', '-', '_', '"', ' ', '[', ']',
+                'ä'})
+            String domainPart,
+            @ForAll boolean knownTld) {
+        assertSameResult(localPart+"@"+domainPart
+                +(knownTld ? ".com" : ""));
+    }
+}
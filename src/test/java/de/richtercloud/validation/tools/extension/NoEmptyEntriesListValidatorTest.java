@@ -0,0 +1,127 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author richter
+ */
+public class NoEmptyEntriesListValidatorTest {
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    public void testIsValid() {
+        NoEmptyEntriesListValidator instance = new NoEmptyEntriesListValidator();
+        assertTrue(instance.isValid(null,
+                null //context
+        ));
+        assertTrue(instance.isValid(Arrays.asList("a", "b"),
+                null //context
+        ));
+        assertFalse(instance.isValid(Arrays.asList("a", null),
+                null //context
+        ));
+        assertFalse(instance.isValid(Arrays.asList("a", ""),
+                null //context
+        ));
+        assertFalse(instance.isValid(new LinkedList<>(Arrays.asList("", "a")),
+                null //context
+        ));
+        assertTrue(instance.isValid(Arrays.asList(1, 2),
+                null //context
+        ));
+    }
+
+    @Test
+    public void testIsValidParallel() {
+        List<String> value = new ArrayList<>(Collections.nCopies(EmptyEntryScanner.PARALLEL_THRESHOLD*2,
+                "a"));
+        NoEmptyEntriesListValidator listValidator = new NoEmptyEntriesListValidator();
+        NoEmptyEntriesArrayValidator arrayValidator = new NoEmptyEntriesArrayValidator();
+        assertTrue(listValidator.isValid(value,
+                null //context
+        ));
+        assertTrue(arrayValidator.isValid(value.toArray(),
+                null //context
+        ));
+        value.set(value.size()-1, "");
+        assertFalse(listValidator.isValid(value,
+                null //context
+        ));
+        assertFalse(arrayValidator.isValid(value.toArray(),
+                null //context
+        ));
+    }
+
+    /**
+     * Tests that collections which throw {@link NullPointerException} on
+     * {@code contains(null)} are supported.
+     */
+    @Test
+    public void testIsValidNullHostile() {
+        NoEmptyEntriesIterableValidator instance = new NoEmptyEntriesIterableValidator();
+        assertTrue(instance.isValid(new TreeSet<>(Arrays.asList("a", "b")),
+                null //context
+        ));
+        assertFalse(instance.isValid(new TreeSet<>(Arrays.asList("a", "")),
+                null //context
+        ));
+    }
+
+    @Test
+    public void testValidationTypes() {
+        Entity entity = new Entity();
+        entity.list = Arrays.asList("a", "b");
+        entity.collection = Arrays.asList("a", "b");
+        entity.set = new TreeSet<>(entity.list);
+        entity.iterable = entity.list;
+        entity.array = new String[] {"a", "b"};
+        assertTrue(validator.validate(entity).isEmpty());
+        entity.list = Arrays.asList("a", null);
+        entity.collection = Arrays.asList("a", "");
+        entity.set = new TreeSet<>(Arrays.asList("a", ""));
+        entity.iterable = Arrays.asList(null, "b");
+        entity.array = new String[] {"", "b"};
+        Set<ConstraintViolation<Entity>> violations = validator.validate(entity);
+        assertEquals(5, violations.size());
+    }
+
+    public static class Entity {
+        @NoEmptyEntriesList
+        private List<String> list;
+        @NoEmptyEntriesList
+        private Collection<String> collection;
+        @NoEmptyEntriesList
+        private Set<String> set;
+        @NoEmptyEntriesList
+        private Iterable<String> iterable;
+        @NoEmptyEntriesList
+        private String[] array;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.extension;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author richter
+ */
+public class NoEmptyEntriesMapValidatorTest {
+    private final NoEmptyEntriesMapValidator instance = new NoEmptyEntriesMapValidator();
+
+    private boolean isValid(Map<?, ?> value) {
+        return instance.isValid(value,
+                null //context
+        );
+    }
+
+    @Test
+    public void testIsValid() {
+        assertTrue(isValid(null));
+        Map<String, String> value = new HashMap<>();
+        value.put("a", "b");
+        assertTrue(isValid(value));
+        value.put(null, "c");
+        assertFalse(isValid(value));
+        value.remove(null);
+        value.put("", "c");
+        assertFalse(isValid(value));
+        value.remove("");
+        value.put("c", null);
+        assertFalse(isValid(value));
+        value.put("c", "");
+        assertFalse(isValid(value));
+    }
+
+    /**
+     * Tests that maps which throw {@link NullPointerException} on
+     * {@code keySet().contains(null)} are supported.
+     */
+    @Test
+    public void testIsValidNullHostile() {
+        assertTrue(isValid(ImmutableMap.of("a", "b")));
+        assertFalse(isValid(ImmutableMap.of("a", "")));
+        Map<String, String> concurrentMap = new ConcurrentHashMap<>();
+        concurrentMap.put("a", "b");
+        assertTrue(isValid(concurrentMap));
+        concurrentMap.put("", "b");
+        assertFalse(isValid(concurrentMap));
+        Map<String, String> treeMap = new TreeMap<>();
+        treeMap.put("a", "b");
+        assertTrue(isValid(treeMap));
+        treeMap.put("c", "");
+        assertFalse(isValid(treeMap));
+    }
+
+    @Test
+    public void testIsValidParallel() {
+        Map<Integer, String> value = new HashMap<>();
+        for(int i=0; i<EmptyEntryScanner.PARALLEL_THRESHOLD*2; i++) {
+            value.put(i, "a");
+        }
+        assertTrue(isValid(value));
+        value.put(EmptyEntryScanner.PARALLEL_THRESHOLD, "");
+        assertFalse(isValid(value));
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.retriever;
+
+import de.richtercloud.validation.tools.annotations.GenerateFieldTable;
+import de.richtercloud.validation.tools.annotations.Skip;
+
+/**
+ *
+ * @author richter
+ */
+@GenerateFieldTable
+public class GeneratedEntity extends TestEntity {
+    private static String s = "s";
+    private String c = "c";
+    private transient String t = "t";
+    @Skip
+    private String skipped = "skipped";
+    private int d;
+
+    GeneratedEntity() {
+    }
+
+    @GenerateFieldTable
+    public static class Nested extends GeneratedEntity {
+        private String e = "e";
+    }
+}
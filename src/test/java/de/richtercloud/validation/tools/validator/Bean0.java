@@ -33,4 +33,8 @@ public class Bean0 {
         this.bean1 = bean1;
         this.property0 = property0;
     }
+
+    public void setProperty0(String property0) {
+        this.property0 = property0;
+    }
 }
@@ -0,0 +1,55 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.validation.Valid;
+
+/**
+ *
+ * @author richter
+ * @param <T> the type of items
+ */
+public abstract class GenericBase<T> {
+    @Valid
+    private T item;
+    @Valid
+    private final List<T> items = new ArrayList<>();
+    @Valid
+    private final Map<String, T> itemMap = new HashMap<>();
+    @Valid
+    private final List<? extends T> wildcardItems;
+    @Valid
+    private final GenericItem[] itemArray;
+
+    protected GenericBase(T item,
+            List<? extends T> wildcardItems,
+            GenericItem[] itemArray) {
+        this.item = item;
+        this.wildcardItems = wildcardItems;
+        this.itemArray = itemArray;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Map<String, T> getItemMap() {
+        return itemMap;
+    }
+}
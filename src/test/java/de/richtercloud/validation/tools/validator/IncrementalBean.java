@@ -0,0 +1,64 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ *
+ * @author richter
+ */
+public class IncrementalBean {
+    @NotNull
+    private String name;
+    @Min(1)
+    private int count;
+    @Valid
+    private IncrementalChild child;
+    @Valid
+    private List<IncrementalChild> children = new ArrayList<>();
+
+    public IncrementalBean(String name,
+            int count,
+            IncrementalChild child) {
+        this.name = name;
+        this.count = count;
+        this.child = child;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public IncrementalChild getChild() {
+        return child;
+    }
+
+    public void setChild(IncrementalChild child) {
+        this.child = child;
+    }
+
+    public List<IncrementalChild> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.richtercloud.validation.tools.validator;
+
+import javax.validation.GroupSequence;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ *
+ * @author richter
+ */
+@GroupSequence({SequenceBean.class, Strict.class})
+public class SequenceBean {
+    @NotNull
+    private String name;
+    @Size(min = 5, groups = Strict.class)
+    private String code;
+
+    public SequenceBean(String name, String code) {
+        this.name = name;
+        this.code = code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}